@@ -0,0 +1,47 @@
+package com.marcos.demo.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Example;
+
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.QueryBuilder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PlanetDomainBenchmark {
+
+	private final Planet filter = new Planet(" Arid ", "Desert");
+	private final Planet planet = new Planet(1L, "Tatooine", "arid", "desert");
+	private final Planet same = new Planet(1L, "Tatooine", "arid", "desert");
+	private final Planet other = new Planet(2L, "Alderaan", "temperate", "grasslands, mountains");
+
+	@Benchmark
+	public Example<Planet> makeQuery() {
+		return QueryBuilder.makeQuery(filter);
+	}
+
+	@Benchmark
+	public boolean equalsSame() {
+		return planet.equals(same);
+	}
+
+	@Benchmark
+	public boolean equalsOther() {
+		return planet.equals(other);
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.marcos.demo.jmh;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.marcos.demo.config.WebFormatsConfig;
+import com.marcos.demo.domain.PlanetView;
+
+// Serialization CPU per wire format, with and without gzip; the sizes are in PayloadSizeBenchmark.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PlanetFormatBenchmark {
+
+	@Param({ "json", "smile", "cbor" })
+	private String format;
+
+	@Param({ "10", "100", "1000" })
+	private int size;
+
+	private ObjectWriter writer;
+	private List<PlanetView> planets;
+
+	@Setup
+	public void setUp() {
+		ObjectMapper mapper = switch (format) {
+		case "smile" -> new ObjectMapper(WebFormatsConfig.smileFactory());
+		case "cbor" -> new ObjectMapper(WebFormatsConfig.cborFactory());
+		default -> new ObjectMapper();
+		};
+		writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, PlanetView.class));
+		planets = IntStream.range(0, size)
+				.mapToObj(i -> new PlanetView((long) i, "Planet " + i, i % 3 == 0 ? "arid" : "temperate, tropical",
+						i % 2 == 0 ? "desert" : "jungle, rainforests"))
+				.toList();
+	}
+
+	@Benchmark
+	public byte[] serialize() throws IOException {
+		return writer.writeValueAsBytes(planets);
+	}
+
+	@Benchmark
+	public byte[] serializeGzip() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+			writer.writeValue(gzip, planets);
+		}
+		return bytes.toByteArray();
+	}
+
+}
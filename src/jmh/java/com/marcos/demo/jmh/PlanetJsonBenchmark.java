@@ -0,0 +1,52 @@
+package com.marcos.demo.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.marcos.demo.domain.Planet;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PlanetJsonBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	private int size;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private ObjectWriter writer;
+	private List<Planet> planets;
+
+	@Setup
+	public void setUp() {
+		writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Planet.class));
+		planets = IntStream.range(0, size)
+				.mapToObj(i -> new Planet((long) i, "Planet " + i, "temperate, tropical", "jungle, rainforests"))
+				.toList();
+	}
+
+	@Benchmark
+	public byte[] serializeList() throws JsonProcessingException {
+		return writer.writeValueAsBytes(planets);
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.marcos.demo.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcos.demo.catalog.PlanetNameIndex;
+import com.marcos.demo.catalog.PlanetTrigramIndex;
+import com.marcos.demo.domain.PlanetNameMatch;
+import com.marcos.demo.domain.PlanetSuggestion;
+import com.marcos.demo.domain.PlanetView;
+
+// Name lookups against synthetic catalogs of pronounceable names; "tatoine" is a misspelled planet that exists.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PlanetNameSearchBenchmark {
+
+	private static final String[] SYLLABLES = { "ta", "too", "ine", "al", "de", "ra", "an", "ho", "th", "ya", "vin",
+			"ka", "mi", "no", "be", "spin", "dan", "tu", "end", "or" };
+
+	@Param({ "10000", "300000" })
+	private int planets;
+
+	private final PlanetNameIndex names = new PlanetNameIndex(true);
+	private final PlanetTrigramIndex trigrams = new PlanetTrigramIndex(true, 0.3);
+
+	@Setup
+	public void setUp() {
+		SplittableRandom random = new SplittableRandom(42);
+		List<PlanetView> catalog = new ArrayList<>(planets);
+		catalog.add(new PlanetView(0L, "Tatooine", "arid", "desert"));
+		for (long id = 1; id < planets; id++) {
+			StringBuilder name = new StringBuilder();
+			for (int s = 2 + random.nextInt(3); s > 0; s--) {
+				name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+			}
+			catalog.add(new PlanetView(id, name + " " + id, "arid", "desert"));
+		}
+		names.reset();
+		names.add(catalog);
+		names.ready();
+		trigrams.reset();
+		trigrams.add(catalog);
+		trigrams.ready();
+	}
+
+	@Benchmark
+	public List<PlanetSuggestion> suggest() {
+		return names.suggest("tat", 10);
+	}
+
+	@Benchmark
+	public List<PlanetNameMatch> fuzzySearch() {
+		return trigrams.search("tatoine", 10);
+	}
+
+}
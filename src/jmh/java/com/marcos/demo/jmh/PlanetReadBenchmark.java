@@ -0,0 +1,96 @@
+package com.marcos.demo.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.marcos.demo.DemoApplication;
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetFilter;
+import com.marcos.demo.domain.PlanetView;
+import com.marcos.demo.repository.PlanetRepository;
+import com.marcos.demo.service.PlanetService;
+
+import jakarta.persistence.EntityManager;
+
+/*
+ * A page of planets read as managed entities (what PlanetService used to return) against the same
+ * page selected into PlanetView. Run with -Djmh.args="PlanetReadBenchmark -prof gc" for allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanetReadBenchmark {
+
+	@Param({ "100", "1000" })
+	private int pageSize;
+
+	private ConfigurableApplicationContext context;
+	private PlanetRepository repository;
+	private EntityManager entityManager;
+	private TransactionTemplate readOnly;
+	private TransactionTemplate readWrite;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(DemoApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.datasource.driverClassName=",
+						"spring.datasource.url=jdbc:h2:mem:jmh-read;DB_CLOSE_DELAY=-1",
+						"spring.datasource.username=sa",
+						"spring.datasource.password=",
+						"spring.jpa.hibernate.ddl-auto=none")
+				.run();
+		repository = context.getBean(PlanetRepository.class);
+		entityManager = context.getBean(EntityManager.class);
+		PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		context.getBean(PlanetService.class).createBatch(IntStream.range(0, 1_000)
+				.mapToObj(i -> new Planet("Planet " + i, "temperate", "jungle"))
+				.iterator());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<Planet> managedEntities() {
+		return readWrite.execute(status -> entityManager
+				.createQuery("select p from Planet p where p.climateKey = :climate order by p.id", Planet.class)
+				.setParameter("climate", "temperate")
+				.setMaxResults(pageSize)
+				.getResultList());
+	}
+
+	@Benchmark
+	public List<PlanetView> readOnlyProjections() {
+		return readOnly.execute(status -> repository.findPage(new PlanetFilter("temperate", null), 0L, pageSize));
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.marcos.demo.jmh;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.marcos.demo.DemoApplication;
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetView;
+import com.marcos.demo.service.PlanetService;
+
+/*
+ * PlanetService against embedded H2. cacheSize=1 makes every getId/getByName a database read;
+ * the default size keeps the whole seeded catalog cached after warmup. The result cache is off,
+ * so list() measures the query rather than a map lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanetServiceBenchmark {
+
+	private static final int PLANETS = 1_000;
+
+	@Param({ "1", "10000" })
+	private int cacheSize;
+
+	private ConfigurableApplicationContext context;
+	private PlanetService service;
+	private long firstId;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(DemoApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.datasource.driverClassName=",
+						"spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+						"spring.datasource.username=sa",
+						"spring.datasource.password=",
+						"spring.jpa.hibernate.ddl-auto=none",
+						"planet.cache.max-size=" + cacheSize,
+						"planet.result-cache.max-size=0")
+				.run();
+		service = context.getBean(PlanetService.class);
+		service.createBatch(IntStream.range(0, PLANETS)
+				.mapToObj(i -> new Planet("Planet " + i, i % 4 == 0 ? "arid" : "temperate", "desert"))
+				.iterator());
+		firstId = service.getByName("Planet 0").orElseThrow().id();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<PlanetView> list() {
+		return service.list("arid", "desert");
+	}
+
+	@Benchmark
+	public Optional<PlanetView> getId() {
+		return service.getId(firstId + nextIndex());
+	}
+
+	@Benchmark
+	public Optional<PlanetView> getByName() {
+		return service.getByName("Planet " + nextIndex());
+	}
+
+	private int nextIndex() {
+		next = next == PLANETS - 1 ? 0 : next + 1;
+		return next;
+	}
+
+}
@@ -0,0 +1,313 @@
+package com.marcos.demo.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetFilter;
+import com.marcos.demo.domain.PlanetView;
+import com.marcos.demo.domain.TokenMatch;
+
+/*
+ * Column-oriented copy of the planets table (planet.catalog.engine=columnar). Rows are kept in id
+ * order; climate and terrain are dictionary-encoded, and every lookup key and token has a bitmap
+ * of the rows carrying it, so any PlanetFilter is answered with a few BitSet AND/OR operations.
+ */
+@Component
+public class PlanetColumnStore implements PlanetIndex {
+
+	private static final BitSet EMPTY = new BitSet();
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final boolean enabled;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile boolean ready;
+
+	private int rows;
+	private int deleted;
+	private long[] ids = new long[INITIAL_CAPACITY];
+	private String[] names = new String[INITIAL_CAPACITY];
+	private long[] versions = new long[INITIAL_CAPACITY];
+	private int[] climateCodes = new int[INITIAL_CAPACITY];
+	private int[] terrainCodes = new int[INITIAL_CAPACITY];
+	private final BitSet live = new BitSet();
+	private final Map<Long, Integer> rowsById = new HashMap<>();
+
+	private final Dictionary climates = new Dictionary();
+	private final Dictionary terrains = new Dictionary();
+	private final Map<String, BitSet> climateKeys = new HashMap<>();
+	private final Map<String, BitSet> terrainKeys = new HashMap<>();
+	private final Map<String, BitSet> climateTokens = new HashMap<>();
+	private final Map<String, BitSet> terrainTokens = new HashMap<>();
+
+	public PlanetColumnStore(@Value("${planet.catalog.engine:database}") String engine) {
+		this.enabled = "columnar".equalsIgnoreCase(engine);
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	@Override
+	public void reset() {
+		lock.writeLock().lock();
+		try {
+			ready = false;
+			clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void ready() {
+		ready = true;
+	}
+
+	@Override
+	public void add(Collection<PlanetView> planets) {
+		lock.writeLock().lock();
+		try {
+			for (PlanetView planet : planets) {
+				if (planet.id() == null || rowsById.containsKey(planet.id())) {
+					continue;
+				}
+				// A create that committed after a higher id did goes in at its place, keeping id order for
+				// keyset reads; only the rows behind it move.
+				int row = rows == 0 || planet.id() > ids[rows - 1] ? rows : firstRowAfter(planet.id());
+				insert(row, planet.id(), planet.name(), planet.climate(), planet.terain(), planet.version());
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(Collection<Long> planetIds) {
+		lock.writeLock().lock();
+		try {
+			for (Long id : planetIds) {
+				Integer row = rowsById.remove(id);
+				if (row != null) {
+					live.clear(row);
+					deleted++;
+				}
+			}
+			if (deleted > INITIAL_CAPACITY && deleted > rows / 2) {
+				compact();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public List<PlanetView> find(PlanetFilter filter, long after, int limit) {
+		lock.readLock().lock();
+		try {
+			BitSet matches = select(filter);
+			List<PlanetView> planets = new ArrayList<>(Math.min(limit, 256));
+			for (int row = matches.nextSetBit(firstRowAfter(after)); row >= 0 && planets.size() < limit; row = matches
+					.nextSetBit(row + 1)) {
+				planets.add(new PlanetView(ids[row], names[row], climates.decode(climateCodes[row]),
+						terrains.decode(terrainCodes[row]), versions[row]));
+			}
+			return planets;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return rowsById.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private BitSet select(PlanetFilter filter) {
+		List<BitSet> constraints = new ArrayList<>(4);
+		if (filter.climateKey() != null) {
+			constraints.add(climateKeys.getOrDefault(filter.climateKey(), EMPTY));
+		}
+		if (filter.terrainKey() != null) {
+			constraints.add(terrainKeys.getOrDefault(filter.terrainKey(), EMPTY));
+		}
+		if (!filter.climateTokens().isEmpty()) {
+			constraints.add(tokens(climateTokens, filter.climateTokens(), filter.match()));
+		}
+		if (!filter.terrainTokens().isEmpty()) {
+			constraints.add(tokens(terrainTokens, filter.terrainTokens(), filter.match()));
+		}
+		BitSet matches = (BitSet) (constraints.isEmpty() ? live : constraints.get(0)).clone();
+		for (int i = 1; i < constraints.size(); i++) {
+			matches.and(constraints.get(i));
+		}
+		matches.and(live);
+		return matches;
+	}
+
+	private static BitSet tokens(Map<String, BitSet> bitmaps, Set<String> tokens, TokenMatch match) {
+		BitSet matches = null;
+		for (String token : tokens) {
+			BitSet bitmap = bitmaps.getOrDefault(token, EMPTY);
+			if (matches == null) {
+				matches = (BitSet) bitmap.clone();
+			} else if (match == TokenMatch.ALL) {
+				matches.and(bitmap);
+			} else {
+				matches.or(bitmap);
+			}
+		}
+		return matches;
+	}
+
+	private int firstRowAfter(long after) {
+		int low = 0;
+		int high = rows;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (ids[mid] <= after) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private void insert(int row, long id, String name, String climate, String terrain, long version) {
+		if (rows == ids.length) {
+			int capacity = rows * 2;
+			ids = Arrays.copyOf(ids, capacity);
+			names = Arrays.copyOf(names, capacity);
+			versions = Arrays.copyOf(versions, capacity);
+			climateCodes = Arrays.copyOf(climateCodes, capacity);
+			terrainCodes = Arrays.copyOf(terrainCodes, capacity);
+		}
+		if (row < rows) {
+			openRow(row);
+		}
+		rows++;
+		ids[row] = id;
+		names[row] = name;
+		versions[row] = version;
+		climateCodes[row] = climates.encode(climate);
+		terrainCodes[row] = terrains.encode(terrain);
+		live.set(row);
+		rowsById.put(id, row);
+		mark(climateKeys, Planet.lookupKey(climate), row);
+		mark(terrainKeys, Planet.lookupKey(terrain), row);
+		Planet.tokens(climate).forEach(token -> mark(climateTokens, token, row));
+		Planet.tokens(terrain).forEach(token -> mark(terrainTokens, token, row));
+	}
+
+	// Shifts every row from the given one on down by one, in the columns and in all bitmaps.
+	private void openRow(int row) {
+		int tail = rows - row;
+		System.arraycopy(ids, row, ids, row + 1, tail);
+		System.arraycopy(names, row, names, row + 1, tail);
+		System.arraycopy(versions, row, versions, row + 1, tail);
+		System.arraycopy(climateCodes, row, climateCodes, row + 1, tail);
+		System.arraycopy(terrainCodes, row, terrainCodes, row + 1, tail);
+		for (int moved = row + 1; moved <= rows; moved++) {
+			if (rowsById.get(ids[moved]) != null) {
+				rowsById.put(ids[moved], moved);
+			}
+		}
+		shift(live, row);
+		for (Map<String, BitSet> bitmaps : List.of(climateKeys, terrainKeys, climateTokens, terrainTokens)) {
+			bitmaps.values().forEach(bitmap -> shift(bitmap, row));
+		}
+	}
+
+	private static void shift(BitSet bitmap, int from) {
+		for (int bit = bitmap.length() - 1; bit >= from; bit = bitmap.previousSetBit(bit - 1)) {
+			bitmap.clear(bit);
+			bitmap.set(bit + 1);
+		}
+	}
+
+	private static void mark(Map<String, BitSet> bitmaps, String key, int row) {
+		if (key != null) {
+			bitmaps.computeIfAbsent(key, k -> new BitSet()).set(row);
+		}
+	}
+
+	// Rewrites the columns without deleted rows; bitmaps are rebuilt along the way.
+	private void compact() {
+		int[] kept = live.stream().toArray();
+		long[] oldIds = ids;
+		String[] oldNames = names;
+		long[] oldVersions = versions;
+		String[] oldClimates = new String[kept.length];
+		String[] oldTerrains = new String[kept.length];
+		for (int i = 0; i < kept.length; i++) {
+			oldClimates[i] = climates.decode(climateCodes[kept[i]]);
+			oldTerrains[i] = terrains.decode(terrainCodes[kept[i]]);
+		}
+
+		clear();
+		for (int i = 0; i < kept.length; i++) {
+			insert(rows, oldIds[kept[i]], oldNames[kept[i]], oldClimates[i], oldTerrains[i], oldVersions[kept[i]]);
+		}
+	}
+
+	private void clear() {
+		rows = 0;
+		deleted = 0;
+		ids = new long[INITIAL_CAPACITY];
+		names = new String[INITIAL_CAPACITY];
+		versions = new long[INITIAL_CAPACITY];
+		climateCodes = new int[INITIAL_CAPACITY];
+		terrainCodes = new int[INITIAL_CAPACITY];
+		live.clear();
+		rowsById.clear();
+		climates.clear();
+		terrains.clear();
+		climateKeys.clear();
+		terrainKeys.clear();
+		climateTokens.clear();
+		terrainTokens.clear();
+	}
+
+	private static final class Dictionary {
+
+		private final Map<String, Integer> codes = new HashMap<>();
+		private final List<String> values = new ArrayList<>();
+
+		int encode(String value) {
+			return codes.computeIfAbsent(value, v -> {
+				values.add(v);
+				return values.size() - 1;
+			});
+		}
+
+		String decode(int code) {
+			return values.get(code);
+		}
+
+		void clear() {
+			codes.clear();
+			values.clear();
+		}
+
+	}
+
+}
@@ -0,0 +1,119 @@
+package com.marcos.demo.catalog;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetFacets;
+import com.marcos.demo.domain.PlanetFilter;
+import com.marcos.demo.domain.PlanetView;
+
+/*
+ * Planet counts per distinct (climate, terrain) pair. Every PlanetFilter is decided by those two
+ * values alone, so facets for any filter are summed over the pairs, never over the planets.
+ * The pair of each id is kept as well, because delete events only carry ids.
+ */
+@Component
+public class PlanetFacetIndex implements PlanetIndex {
+
+	private final boolean enabled;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile boolean ready;
+
+	private final Map<Long, Pair> pairsById = new HashMap<>();
+	private final Map<Pair, Long> counts = new HashMap<>();
+
+	public PlanetFacetIndex(@Value("${planet.facets.enabled:true}") boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	@Override
+	public void reset() {
+		lock.writeLock().lock();
+		try {
+			ready = false;
+			pairsById.clear();
+			counts.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void ready() {
+		ready = true;
+	}
+
+	@Override
+	public void add(Collection<PlanetView> planets) {
+		lock.writeLock().lock();
+		try {
+			for (PlanetView planet : planets) {
+				if (planet.id() == null || pairsById.containsKey(planet.id())) {
+					continue;
+				}
+				Pair pair = new Pair(key(planet.climate()), key(planet.terain()));
+				pairsById.put(planet.id(), pair);
+				counts.merge(pair, 1L, Long::sum);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(Collection<Long> ids) {
+		lock.writeLock().lock();
+		try {
+			for (Long id : ids) {
+				Pair pair = pairsById.remove(id);
+				if (pair != null) {
+					counts.computeIfPresent(pair, (p, count) -> count == 1 ? null : count - 1);
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public PlanetFacets facets(PlanetFilter filter) {
+		Map<String, Long> climates = new HashMap<>();
+		Map<String, Long> terrains = new HashMap<>();
+		lock.readLock().lock();
+		try {
+			counts.forEach((pair, count) -> {
+				if (filter.matches(pair.climate(), pair.terrain())) {
+					climates.merge(pair.climate(), count, Long::sum);
+					terrains.merge(pair.terrain(), count, Long::sum);
+				}
+			});
+		} finally {
+			lock.readLock().unlock();
+		}
+		return PlanetFacets.of(climates, terrains);
+	}
+
+	// Same folding as the climate_key/terrain_key columns the database groups by.
+	private static String key(String value) {
+		String key = Planet.lookupKey(value);
+		return key == null ? "" : key;
+	}
+
+	private record Pair(String climate, String terrain) {
+	}
+
+}
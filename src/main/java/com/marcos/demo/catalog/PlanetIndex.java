@@ -0,0 +1,24 @@
+package com.marcos.demo.catalog;
+
+import java.util.Collection;
+
+import com.marcos.demo.domain.PlanetView;
+
+// An in-memory structure derived from the planets table, kept current by PlanetIndexMaintainer.
+public interface PlanetIndex {
+
+	default boolean isEnabled() {
+		return true;
+	}
+
+	// Drops all content ahead of a full load; the index must report itself as not ready until ready().
+	void reset();
+
+	// Planets whose id is already indexed are ignored.
+	void add(Collection<PlanetView> planets);
+
+	void remove(Collection<Long> ids);
+
+	void ready();
+
+}
@@ -0,0 +1,156 @@
+package com.marcos.demo.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.marcos.demo.domain.PlanetFilter;
+import com.marcos.demo.domain.PlanetView;
+import com.marcos.demo.event.PlanetsCreatedEvent;
+import com.marcos.demo.event.PlanetsDeletedEvent;
+import com.marcos.demo.event.PlanetsDeletedMatchingEvent;
+import com.marcos.demo.service.PlanetService;
+
+@Component
+public class PlanetIndexMaintainer {
+
+	private static final Logger log = LoggerFactory.getLogger(PlanetIndexMaintainer.class);
+
+	private static final int LOAD_CHUNK = 1000;
+
+	private final List<PlanetIndex> indexes;
+	private final PlanetService service;
+	private final ReentrantLock lock = new ReentrantLock();
+
+	// Non-null while a full load runs: changes committed meanwhile are replayed once it ends,
+	// so a delete can never be undone by a row the load read before the delete committed.
+	private List<Runnable> deferred;
+
+	// Numbers the full loads; a load that a later reset superseded stops filling the indexes.
+	private long load;
+
+	public PlanetIndexMaintainer(List<PlanetIndex> indexes, PlanetService service) {
+		this.indexes = indexes.stream().filter(PlanetIndex::isEnabled).toList();
+		this.service = service;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		if (!indexes.isEmpty()) {
+			load(reset());
+		}
+	}
+
+	private long reset() {
+		lock.lock();
+		try {
+			deferred = new ArrayList<>();
+			indexes.forEach(PlanetIndex::reset);
+			return ++load;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void load(long number) {
+		long start = System.nanoTime();
+		try {
+			List<PlanetView> chunk = new ArrayList<>(LOAD_CHUNK);
+			service.stream(PlanetFilter.ALL, planet -> {
+				chunk.add(planet);
+				if (chunk.size() == LOAD_CHUNK) {
+					add(number, chunk);
+					chunk.clear();
+				}
+			});
+			add(number, chunk);
+		} catch (CancellationException ex) {
+			return;
+		} catch (RuntimeException ex) {
+			// The indexes stay not ready and callers keep using the database.
+			log.error("Full load of planet indexes failed", ex);
+			finish(number, false);
+			return;
+		}
+		finish(number, true);
+		log.info("Loaded planet indexes {} in {} ms", indexes.stream().map(i -> i.getClass().getSimpleName()).toList(),
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	private void add(long number, List<PlanetView> chunk) {
+		lock.lock();
+		try {
+			if (number != load) {
+				throw new CancellationException();
+			}
+			indexes.forEach(index -> index.add(chunk));
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Ahead of PlanetCatalogGeneration: a reader that sees the new generation must also see the change.
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCreated(PlanetsCreatedEvent event) {
+		apply(index -> index.add(event.planets()));
+	}
+
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onDeleted(PlanetsDeletedEvent event) {
+		apply(index -> index.remove(event.ids()));
+	}
+
+	// The event does not name the rows, so the indexes are dropped at once (readers go to the
+	// database until they are ready again) and loaded anew off the request thread.
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onDeletedMatching(PlanetsDeletedMatchingEvent event) {
+		if (!indexes.isEmpty()) {
+			long number = reset();
+			Thread.ofVirtual().name("planet-index-load").start(() -> load(number));
+		}
+	}
+
+	private void apply(Consumer<PlanetIndex> change) {
+		lock.lock();
+		try {
+			if (deferred != null) {
+				deferred.add(() -> indexes.forEach(change));
+			} else {
+				indexes.forEach(change);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void finish(long number, boolean loaded) {
+		lock.lock();
+		try {
+			if (number != load) {
+				return;
+			}
+			deferred.forEach(Runnable::run);
+			deferred = null;
+			if (loaded) {
+				indexes.forEach(PlanetIndex::ready);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+}
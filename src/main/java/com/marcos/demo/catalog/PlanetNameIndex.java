@@ -0,0 +1,119 @@
+package com.marcos.demo.catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.marcos.demo.domain.PlanetSuggestion;
+import com.marcos.demo.domain.PlanetView;
+
+/*
+ * Planet names in case-folded order. A prefix query is a seek to the first key at or after the
+ * prefix followed by a walk that stops at the first key that no longer starts with it, so it costs
+ * O(log n + limit) whatever the catalog size. Keys end in "\0" + id: names that only differ in case
+ * fold to the same text and must still be told apart.
+ */
+@Component
+public class PlanetNameIndex implements PlanetIndex {
+
+	private final boolean enabled;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile boolean ready;
+
+	private final NavigableMap<String, PlanetSuggestion> byKey = new TreeMap<>();
+	private final Map<Long, String> keysById = new HashMap<>();
+
+	public PlanetNameIndex(@Value("${planet.names.enabled:true}") boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	@Override
+	public void reset() {
+		lock.writeLock().lock();
+		try {
+			ready = false;
+			byKey.clear();
+			keysById.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void ready() {
+		ready = true;
+	}
+
+	@Override
+	public void add(Collection<PlanetView> planets) {
+		lock.writeLock().lock();
+		try {
+			for (PlanetView planet : planets) {
+				if (planet.id() == null || planet.name() == null || keysById.containsKey(planet.id())) {
+					continue;
+				}
+				String key = fold(planet.name().strip()) + '\0' + planet.id();
+				byKey.put(key, new PlanetSuggestion(planet.id(), planet.name()));
+				keysById.put(planet.id(), key);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(Collection<Long> ids) {
+		lock.writeLock().lock();
+		try {
+			for (Long id : ids) {
+				String key = keysById.remove(id);
+				if (key != null) {
+					byKey.remove(key);
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// Only leading blanks are dropped from the prefix: a trailing one is part of what was typed.
+	public List<PlanetSuggestion> suggest(String prefix, int limit) {
+		String folded = fold(prefix.stripLeading());
+		List<PlanetSuggestion> suggestions = new ArrayList<>(Math.min(limit, 16));
+		lock.readLock().lock();
+		try {
+			for (Map.Entry<String, PlanetSuggestion> entry : byKey.tailMap(folded, true).entrySet()) {
+				if (suggestions.size() == limit || !entry.getKey().startsWith(folded)) {
+					break;
+				}
+				suggestions.add(entry.getValue());
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return suggestions;
+	}
+
+	private static String fold(String value) {
+		return value.toLowerCase(Locale.ROOT);
+	}
+
+}
@@ -0,0 +1,256 @@
+package com.marcos.demo.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.marcos.demo.domain.PlanetNameMatch;
+import com.marcos.demo.domain.PlanetView;
+
+/*
+ * Trigram postings over case-folded planet names, for typo-tolerant lookups. Names are padded
+ * ("  tatooine ") so that the first letters weigh in, each trigram is packed into a long, and its
+ * postings are a growable int array of document numbers; with no per-entry objects the index is
+ * roughly 4 bytes per (name, trigram) pair plus the names themselves. A search only touches the
+ * postings of the query's own trigrams and ranks by trigram similarity, as pg_trgm does.
+ */
+@Component
+public class PlanetTrigramIndex implements PlanetIndex {
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final boolean enabled;
+	private final double threshold;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile boolean ready;
+
+	private int docs;
+	private int deleted;
+	private long[] ids = new long[INITIAL_CAPACITY];
+	private String[] names = new String[INITIAL_CAPACITY];
+	private int[] trigramCounts = new int[INITIAL_CAPACITY];
+	private final BitSet live = new BitSet();
+	private final Map<Long, Integer> docsById = new HashMap<>();
+	private final Map<Long, Postings> postings = new HashMap<>();
+
+	public PlanetTrigramIndex(@Value("${planet.names.enabled:true}") boolean enabled,
+			@Value("${planet.names.similarity-threshold:0.3}") double threshold) {
+		this.enabled = enabled;
+		this.threshold = threshold;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	@Override
+	public void reset() {
+		lock.writeLock().lock();
+		try {
+			ready = false;
+			clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void ready() {
+		ready = true;
+	}
+
+	@Override
+	public void add(Collection<PlanetView> planets) {
+		lock.writeLock().lock();
+		try {
+			for (PlanetView planet : planets) {
+				if (planet.id() != null && planet.name() != null && !docsById.containsKey(planet.id())) {
+					append(planet.id(), planet.name());
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(Collection<Long> planetIds) {
+		lock.writeLock().lock();
+		try {
+			for (Long id : planetIds) {
+				Integer doc = docsById.remove(id);
+				if (doc != null) {
+					live.clear(doc);
+					deleted++;
+				}
+			}
+			// Postings still list deleted documents; they are skipped until enough pile up to rebuild.
+			if (deleted > INITIAL_CAPACITY && deleted > docs / 2) {
+				compact();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public List<PlanetNameMatch> search(String name, int limit) {
+		long[] query = trigrams(name);
+		if (query.length == 0) {
+			return List.of();
+		}
+		Comparator<PlanetNameMatch> ranking = Comparator.comparingDouble(PlanetNameMatch::similarity)
+				.thenComparing(PlanetNameMatch::name, Comparator.reverseOrder());
+		// Min-heap of the best matches so far, so only limit candidates are ever kept.
+		PriorityQueue<PlanetNameMatch> best = new PriorityQueue<>(limit + 1, ranking);
+		lock.readLock().lock();
+		try {
+			List<Postings> lists = new ArrayList<>(query.length);
+			int touched = 0;
+			for (long trigram : query) {
+				Postings list = postings.get(trigram);
+				if (list != null) {
+					lists.add(list);
+					touched += list.size;
+				}
+			}
+			SharedCounts shared = new SharedCounts(touched);
+			for (Postings list : lists) {
+				for (int i = 0; i < list.size; i++) {
+					if (live.get(list.docs[i])) {
+						shared.increment(list.docs[i]);
+					}
+				}
+			}
+			for (int slot = 0; slot < shared.docs.length; slot++) {
+				int doc = shared.docs[slot];
+				if (doc < 0) {
+					continue;
+				}
+				int common = shared.counts[slot];
+				double similarity = (double) common / (query.length + trigramCounts[doc] - common);
+				if (similarity >= threshold) {
+					best.add(new PlanetNameMatch(ids[doc], names[doc], similarity));
+					if (best.size() > limit) {
+						best.poll();
+					}
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		List<PlanetNameMatch> matches = new ArrayList<>(best);
+		matches.sort(ranking.reversed());
+		return matches;
+	}
+
+	private void append(long id, String name) {
+		if (docs == ids.length) {
+			int capacity = docs * 2;
+			ids = Arrays.copyOf(ids, capacity);
+			names = Arrays.copyOf(names, capacity);
+			trigramCounts = Arrays.copyOf(trigramCounts, capacity);
+		}
+		int doc = docs++;
+		long[] trigrams = trigrams(name);
+		ids[doc] = id;
+		names[doc] = name;
+		trigramCounts[doc] = trigrams.length;
+		live.set(doc);
+		docsById.put(id, doc);
+		for (long trigram : trigrams) {
+			postings.computeIfAbsent(trigram, t -> new Postings()).add(doc);
+		}
+	}
+
+	private void compact() {
+		long[] oldIds = ids;
+		String[] oldNames = names;
+		BitSet oldLive = (BitSet) live.clone();
+		clear();
+		for (int doc = oldLive.nextSetBit(0); doc >= 0; doc = oldLive.nextSetBit(doc + 1)) {
+			append(oldIds[doc], oldNames[doc]);
+		}
+	}
+
+	private void clear() {
+		docs = 0;
+		deleted = 0;
+		ids = new long[INITIAL_CAPACITY];
+		names = new String[INITIAL_CAPACITY];
+		trigramCounts = new int[INITIAL_CAPACITY];
+		live.clear();
+		docsById.clear();
+		postings.clear();
+	}
+
+	// Distinct trigrams of "  " + name + " ", case-folded and with runs of blanks collapsed.
+	static long[] trigrams(String name) {
+		String folded = name.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+		if (folded.isEmpty()) {
+			return new long[0];
+		}
+		String padded = "  " + folded + " ";
+		long[] trigrams = new long[padded.length() - 2];
+		for (int i = 0; i < trigrams.length; i++) {
+			trigrams[i] = (long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2);
+		}
+		return Arrays.stream(trigrams).distinct().toArray();
+	}
+
+	private static final class Postings {
+
+		private int[] docs = new int[4];
+		private int size;
+
+		void add(int doc) {
+			if (size == docs.length) {
+				docs = Arrays.copyOf(docs, size * 2);
+			}
+			docs[size++] = doc;
+		}
+
+	}
+
+	// Open-addressing doc -> shared trigram count, sized by the postings a query touches rather than
+	// by the catalog, so a search allocates in proportion to its own work.
+	private static final class SharedCounts {
+
+		private final int[] docs;
+		private final int[] counts;
+
+		SharedCounts(int expected) {
+			int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1;
+			docs = new int[capacity];
+			counts = new int[capacity];
+			Arrays.fill(docs, -1);
+		}
+
+		void increment(int doc) {
+			int mask = docs.length - 1;
+			int slot = (doc * 0x9E3779B9) >>> 1 & mask;
+			while (docs[slot] != doc && docs[slot] != -1) {
+				slot = (slot + 1) & mask;
+			}
+			docs[slot] = doc;
+			counts[slot]++;
+		}
+
+	}
+
+}
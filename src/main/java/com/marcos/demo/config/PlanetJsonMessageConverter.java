@@ -0,0 +1,83 @@
+package com.marcos.demo.config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.marcos.demo.domain.PlanetView;
+import com.marcos.demo.service.PlanetJsonCache;
+
+/*
+ * Writes PlanetView and collections of PlanetView as JSON from PlanetJsonCache: a list is "[",
+ * the cached bytes of each planet separated by ",", and "]", with no Jackson call for planets
+ * already encoded. Everything else, and every read, is left to the Jackson converter behind it.
+ */
+public class PlanetJsonMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+	private final PlanetJsonCache cache;
+
+	public PlanetJsonMessageConverter(PlanetJsonCache cache) {
+		super(MediaType.APPLICATION_JSON);
+		this.cache = cache;
+	}
+
+	@Override
+	public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return PlanetView.class == clazz || Collection.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+		return cache.isEnabled() && (type == PlanetView.class || isPlanetViewCollection(type))
+				&& canWrite(mediaType);
+	}
+
+	private static boolean isPlanetViewCollection(Type type) {
+		return type instanceof ParameterizedType parameterized
+				&& parameterized.getRawType() instanceof Class<?> raw && Collection.class.isAssignableFrom(raw)
+				&& parameterized.getActualTypeArguments()[0] == PlanetView.class;
+	}
+
+	@Override
+	protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+		OutputStream body = outputMessage.getBody();
+		if (value instanceof PlanetView planet) {
+			body.write(cache.json(planet));
+			return;
+		}
+		body.write('[');
+		boolean first = true;
+		for (Object planet : (Collection<?>) value) {
+			if (!first) {
+				body.write(',');
+			}
+			body.write(cache.json((PlanetView) planet));
+			first = false;
+		}
+		body.write(']');
+	}
+
+	@Override
+	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+		throw new HttpMessageNotReadableException("Write-only converter", inputMessage);
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+		throw new HttpMessageNotReadableException("Write-only converter", inputMessage);
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.marcos.demo.config;
+
+import java.util.Locale;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import com.marcos.demo.domain.TokenMatch;
+
+// Plain enum binding is case-sensitive; this lets ?match=all and ?match=ALL mean the same thing.
+// Boot registers Converter beans with both the MVC and the WebFlux conversion services.
+@Component
+public class TokenMatchConverter implements Converter<String, TokenMatch> {
+
+	@Override
+	public TokenMatch convert(String source) {
+		return TokenMatch.valueOf(source.trim().toUpperCase(Locale.ROOT));
+	}
+
+}
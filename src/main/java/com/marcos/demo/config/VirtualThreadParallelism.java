@@ -0,0 +1,33 @@
+package com.marcos.demo.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/*
+ * mysql-connector-j 8.x executes statements inside synchronized blocks, so a virtual thread waiting
+ * on a MySQL query pins its carrier. With the default scheduler (one carrier per core) that caps
+ * database concurrency below the Hikari pool on small machines. When virtual threads are enabled
+ * this raises jdk.virtualThreadScheduler.parallelism to at least the pool size, unless it was set
+ * on the command line. The scheduler reads the property once, when the first virtual thread starts,
+ * which for the application is Tomcat starting after this runs.
+ */
+public class VirtualThreadParallelism implements EnvironmentPostProcessor {
+
+	public static final String PARALLELISM = "jdk.virtualThreadScheduler.parallelism";
+
+	@Override
+	public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+		if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+			apply(environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+		}
+	}
+
+	public static void apply(int poolSize) {
+		if (System.getProperty(PARALLELISM) == null) {
+			System.setProperty(PARALLELISM,
+					Integer.toString(Math.max(poolSize, Runtime.getRuntime().availableProcessors())));
+		}
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.marcos.demo.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.marcos.demo.service.PlanetJsonCache;
+
+/*
+ * Binary alternatives to JSON, chosen by the Accept header: application/x-jackson-smile and
+ * application/cbor. Spring registers both on its own when the libraries are present, but with a
+ * plain mapper; these are built from Boot's Jackson builder so spring.jackson.* applies to them too.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class WebFormatsConfig implements WebMvcConfigurer {
+
+	// Prototype bean: every getObject() is a fresh builder.
+	@Autowired
+	private ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+	// Absent from web slices that do not load services.
+	@Autowired
+	private ObjectProvider<PlanetJsonCache> jsonCache;
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+				|| converter instanceof MappingJackson2CborHttpMessageConverter);
+		converters.add(new MappingJackson2SmileHttpMessageConverter(builders.getObject().factory(smileFactory()).build()));
+		converters.add(new MappingJackson2CborHttpMessageConverter(builders.getObject().factory(cborFactory()).build()));
+		// Ahead of Jackson; it only claims planet JSON, and only while planet.json-cache.enabled is set.
+		jsonCache.ifAvailable(cache -> converters.add(0, new PlanetJsonMessageConverter(cache)));
+	}
+
+	// Climate and terrain repeat across a list; with shared values each distinct string is written
+	// once and later occurrences become one-byte back-references.
+	public static SmileFactory smileFactory() {
+		return SmileFactory.builder()
+				.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+				.build();
+	}
+
+	// Left without stringref tags (CBORGenerator.Feature.STRINGREF): few CBOR clients decode them.
+	public static CBORFactory cborFactory() {
+		return new CBORFactory();
+	}
+
+}
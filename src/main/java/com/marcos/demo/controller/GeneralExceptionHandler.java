@@ -1,5 +1,9 @@
 package com.marcos.demo.controller;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.http.HttpHeaders;
@@ -12,24 +16,65 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.marcos.demo.service.InvalidCursorException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 @ControllerAdvice
+@ConditionalOnWebApplication(type = Type.SERVLET)
 public class GeneralExceptionHandler extends ResponseEntityExceptionHandler{
 	
+	// Optional so that slices without metrics (e.g. @WebMvcTest) still get the error mappings.
+	@Autowired
+	private ObjectProvider<MeterRegistry> meterRegistry;
+	
 	@Override
 	protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
 			HttpHeaders headers, HttpStatusCode status, WebRequest request) {
 		return super.handleMethodArgumentNotValid(ex, headers, HttpStatus.UNPROCESSABLE_ENTITY, request);
 	}
 	
+	// Every mapping inherited from ResponseEntityExceptionHandler ends up here.
+	@Override
+	protected ResponseEntity<Object> handleExceptionInternal(Exception ex, Object body, HttpHeaders headers,
+			HttpStatusCode statusCode, WebRequest request) {
+		count(ex, statusCode);
+		return super.handleExceptionInternal(ex, body, headers, statusCode, request);
+	}
+	
     @ExceptionHandler(DataIntegrityViolationException.class)
     private ResponseEntity<Object> handleConflict(DataIntegrityViolationException ex){
+    	count(ex, HttpStatus.CONFLICT);
     	return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
     }
     
     @ExceptionHandler(EmptyResultDataAccessException.class)
     private ResponseEntity<Object> handleBadRequest(EmptyResultDataAccessException exception) {
+      count(exception, HttpStatus.NOT_FOUND);
       return ResponseEntity.status(HttpStatus.NOT_FOUND)
           .body(exception.getMessage());
     }
+    
+    @ExceptionHandler({ JsonProcessingException.class, RuntimeJsonMappingException.class })
+    private ResponseEntity<Object> handleUnreadableBatch(Exception exception) {
+      count(exception, HttpStatus.BAD_REQUEST);
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body(exception.getMessage());
+    }
+    
+    @ExceptionHandler(InvalidCursorException.class)
+    private ResponseEntity<Object> handleInvalidCursor(InvalidCursorException exception) {
+      count(exception, HttpStatus.BAD_REQUEST);
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body(exception.getMessage());
+    }
+    
+    private void count(Exception exception, HttpStatusCode status) {
+      meterRegistry.ifAvailable(registry -> registry.counter("planet.http.errors",
+          "exception", exception.getClass().getSimpleName(), "status", Integer.toString(status.value()))
+          .increment());
+    }
 
 }
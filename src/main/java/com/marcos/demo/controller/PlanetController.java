@@ -1,9 +1,19 @@
 package com.marcos.demo.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,42 +23,193 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetBatchReport;
+import com.marcos.demo.domain.PlanetDeleteReport;
+import com.marcos.demo.domain.PlanetFacets;
+import com.marcos.demo.domain.PlanetFilter;
+import com.marcos.demo.domain.PlanetNameMatch;
+import com.marcos.demo.domain.PlanetPage;
+import com.marcos.demo.domain.PlanetSuggestion;
+import com.marcos.demo.domain.PlanetView;
+import com.marcos.demo.domain.TokenMatch;
+import com.marcos.demo.service.CacheStats;
 import com.marcos.demo.service.PlanetService;
+import com.marcos.demo.service.ResultCacheStats;
 
 import jakarta.validation.Valid;
 
 @RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @RequestMapping("/planets")
 public class PlanetController {
 
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
 	@Autowired
 	private PlanetService service;
 
+	@Autowired
+	private ObjectMapper mapper;
+
 	@PostMapping
 	public ResponseEntity<Planet> create(@RequestBody @Valid Planet planet) {
 		Planet planetCreated = service.create(planet);
 		return ResponseEntity.status(HttpStatus.CREATED).body(planetCreated);
 	}
 
+	@PostMapping(path = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public ResponseEntity<PlanetBatchReport> createBatch(InputStream body) throws IOException {
+		// Reads a JSON array or NDJSON lazily, so the request is never held in memory as a whole.
+		try (JsonParser parser = mapper.createParser(body)) {
+			return ResponseEntity.ok(service.createBatch(planets(parser)));
+		}
+	}
+
+	// Like ObjectReader.readValues, except that a null element comes through as null (and is reported
+	// invalid) instead of failing the whole request.
+	private Iterator<Planet> planets(JsonParser parser) throws IOException {
+		ObjectReader reader = mapper.readerFor(Planet.class);
+		if (parser.nextToken() == JsonToken.START_ARRAY) {
+			parser.nextToken();
+		}
+		return new Iterator<>() {
+
+			@Override
+			public boolean hasNext() {
+				return parser.currentToken() != null && parser.currentToken() != JsonToken.END_ARRAY;
+			}
+
+			@Override
+			public Planet next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				try {
+					Planet planet = parser.currentToken() == JsonToken.VALUE_NULL ? null : reader.readValue(parser);
+					parser.nextToken();
+					return planet;
+				} catch (JsonMappingException ex) {
+					throw new RuntimeJsonMappingException(ex);
+				} catch (JsonProcessingException ex) {
+					throw new RuntimeJsonMappingException(ex.getOriginalMessage(),
+							JsonMappingException.from(parser, ex.getOriginalMessage(), ex));
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			}
+		};
+	}
+
+	// A matching If-None-Match turns these into a 304 before the body is serialized.
 	@GetMapping("/{id}")
-	public ResponseEntity<Planet> getById(@PathVariable @Valid Long id) {
-		return service.getId(id).map(planet -> ResponseEntity.ok(planet))
+	public ResponseEntity<PlanetView> getById(@PathVariable @Valid Long id) {
+		return service.getId(id)
+				.map(planet -> ResponseEntity.ok().eTag(etag(planet)).varyBy(HttpHeaders.ACCEPT).body(planet))
 				.orElseGet(() -> ResponseEntity.notFound().build());
 	}
 
 	@GetMapping("/name/{name}")
-	public ResponseEntity<Planet> getByName(@PathVariable String name) {
-		return service.getByName(name).map(planet -> ResponseEntity.ok(planet))
+	public ResponseEntity<PlanetView> getByName(@PathVariable String name) {
+		return service.getByName(name)
+				.map(planet -> ResponseEntity.ok().eTag(etag(planet)).varyBy(HttpHeaders.ACCEPT).body(planet))
 				.orElseGet(() -> ResponseEntity.notFound().build());
 	}
 
+	// The literal path wins over /name/{name}, so planets named "suggest" or "search" can only be fetched by id.
+	@GetMapping("/name/suggest")
+	public ResponseEntity<List<PlanetSuggestion>> suggest(@RequestParam String prefix,
+			@RequestParam(defaultValue = "10") int limit) {
+		return ResponseEntity.ok(service.suggest(prefix, limit));
+	}
+
+	// Typo-tolerant: "tatoine" finds Tatooine. Best match first.
+	@GetMapping("/name/search")
+	public ResponseEntity<List<PlanetNameMatch>> search(@RequestParam("q") String name,
+			@RequestParam(defaultValue = "10") int limit) {
+		return ResponseEntity.ok(service.search(name, limit));
+	}
+
 	@GetMapping
-	public ResponseEntity<List<Planet>> getAll(@RequestParam(required = false) String climate, 
-			@RequestParam (required = false) String terrain) {
-		List<Planet> planets = service.list(climate, terrain);
-		return (ResponseEntity<List<Planet>>) ResponseEntity.ok();
+	public ResponseEntity<List<PlanetView>> getAll(@RequestParam(required = false) String climate, 
+			@RequestParam (required = false) String terrain,
+			@RequestParam(required = false) List<String> climateToken,
+			@RequestParam(required = false) List<String> terrainToken,
+			@RequestParam(defaultValue = "ANY") TokenMatch match,
+			@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "100") int limit,
+			WebRequest request) {
+		varyByAccept(request);
+		String etag = service.catalogETag();
+		if (request.checkNotModified(etag)) {
+			// Nothing changed since the client's copy: no query, no serialization.
+			return null;
+		}
+		PlanetFilter filter = filter(climate, terrain, climateToken, terrainToken, match);
+		PlanetPage page = service.listPage(filter, after, limit);
+		if (!page.hasNext()) {
+			return ResponseEntity.ok().eTag(etag).body(page.content());
+		}
+		String next = ServletUriComponentsBuilder.fromCurrentRequest()
+				.replaceQueryParam("after", page.nextCursor()).build().toUriString();
+		return ResponseEntity.ok()
+				.eTag(etag)
+				.header(NEXT_CURSOR_HEADER, page.nextCursor())
+				.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+				.body(page.content());
+	}
+
+	@GetMapping("/facets")
+	public ResponseEntity<PlanetFacets> facets(@RequestParam(required = false) String climate,
+			@RequestParam(required = false) String terrain,
+			@RequestParam(required = false) List<String> climateToken,
+			@RequestParam(required = false) List<String> terrainToken,
+			@RequestParam(defaultValue = "ANY") TokenMatch match,
+			WebRequest request) {
+		varyByAccept(request);
+		String etag = service.catalogETag();
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
+		PlanetFilter filter = filter(climate, terrain, climateToken, terrainToken, match);
+		return ResponseEntity.ok().eTag(etag).body(service.facets(filter));
+	}
+
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> stream(@RequestParam(required = false) String climate,
+			@RequestParam(required = false) String terrain,
+			@RequestParam(required = false) List<String> climateToken,
+			@RequestParam(required = false) List<String> terrainToken,
+			@RequestParam(defaultValue = "ANY") TokenMatch match) {
+		PlanetFilter filter = filter(climate, terrain, climateToken, terrainToken, match);
+		ObjectWriter writer = mapper.writerFor(PlanetView.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		StreamingResponseBody body = out -> service.stream(filter, planet -> {
+			try {
+				writer.writeValue(out, planet);
+				out.write('\n');
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		});
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
 	}
 	
 	@DeleteMapping("/{id}")
@@ -56,5 +217,47 @@ public class PlanetController {
 		service.delete(id);
 		return ResponseEntity.noContent().build();
 	}
+	
+	// Either a list of ids or a filter; an unfiltered DELETE /planets is refused rather than emptying the catalog.
+	@DeleteMapping
+	public ResponseEntity<PlanetDeleteReport> deleteAll(@RequestParam(required = false) List<Long> id,
+			@RequestParam(required = false) String climate,
+			@RequestParam(required = false) String terrain,
+			@RequestParam(required = false) List<String> climateToken,
+			@RequestParam(required = false) List<String> terrainToken,
+			@RequestParam(defaultValue = "ANY") TokenMatch match) {
+		PlanetFilter filter = filter(climate, terrain, climateToken, terrainToken, match);
+		boolean byId = id != null && !id.isEmpty();
+		if (byId != filter.matchesAll()) {
+			return ResponseEntity.badRequest().build();
+		}
+		int deleted = byId ? service.deleteAll(id) : service.deleteMatching(filter);
+		return ResponseEntity.ok(new PlanetDeleteReport(deleted));
+	}
+	
+	// JSON, Smile and CBOR bodies share the catalog ETag, so caches must key them by Accept; a 304 says so too.
+	private static void varyByAccept(WebRequest request) {
+		((ServletWebRequest) request).getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+	}
+
+	private static String etag(PlanetView planet) {
+		return planet.id() + "-" + planet.version();
+	}
+	
+	private static PlanetFilter filter(String climate, String terrain, List<String> climateTokens,
+			List<String> terrainTokens, TokenMatch match) {
+		return new PlanetFilter(climate, terrain, climateTokens == null ? null : Set.copyOf(climateTokens),
+				terrainTokens == null ? null : Set.copyOf(terrainTokens), match);
+	}
+	
+	@GetMapping("/cache/stats")
+	public ResponseEntity<CacheStats> cacheStats() {
+		return ResponseEntity.ok(service.cacheStats());
+	}
+
+	@GetMapping("/cache/results/stats")
+	public ResponseEntity<ResultCacheStats> resultCacheStats() {
+		return ResponseEntity.ok(service.resultCacheStats());
+	}
 
 }
@@ -0,0 +1,49 @@
+package com.marcos.demo.controller;
+
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.marcos.demo.domain.PlanetFileFormat;
+import com.marcos.demo.service.PlanetExporter;
+
+// GET /planets/export?format=csv: the whole catalog from one snapshot, as a gzip download.
+@RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@RequestMapping("/planets")
+public class PlanetExportController {
+
+	public static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+	@Autowired
+	private PlanetExporter exporter;
+
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+		PlanetFileFormat fileFormat = Arrays.stream(PlanetFileFormat.values())
+				.filter(candidate -> candidate.extension().equalsIgnoreCase(format))
+				.findFirst()
+				.orElse(null);
+		if (fileFormat == null) {
+			return ResponseEntity.badRequest().build();
+		}
+		StreamingResponseBody body = out -> exporter.write(fileFormat, out);
+		return ResponseEntity.ok()
+				.contentType(GZIP)
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+						.filename("planets." + fileFormat.extension() + ".gz").build().toString())
+				.body(body);
+	}
+
+}
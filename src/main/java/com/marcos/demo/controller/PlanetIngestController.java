@@ -0,0 +1,81 @@
+package com.marcos.demo.controller;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.marcos.demo.domain.IngestStatus;
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.service.PlanetIngestQueue;
+import com.marcos.demo.service.PlanetService;
+
+import jakarta.validation.Valid;
+
+// POST /planets with a Prefer header lands here instead of PlanetController.create. Prefer carries a
+// comma-separated list of preferences (RFC 7240), e.g. "respond-async, wait=10"; only when
+// respond-async is among them is the planet queued, otherwise this is the same synchronous create.
+@RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@RequestMapping("/planets")
+public class PlanetIngestController {
+
+	public static final String PREFER = "Prefer";
+	public static final String PREFER_ASYNC = "respond-async";
+
+	@Autowired
+	private PlanetIngestQueue queue;
+
+	@Autowired
+	private PlanetService service;
+
+	@PostMapping(headers = PREFER)
+	public ResponseEntity<?> create(@RequestHeader(PREFER) List<String> preferences, @RequestBody @Valid Planet planet)
+			throws InterruptedException {
+		if (!prefers(preferences, PREFER_ASYNC)) {
+			return ResponseEntity.status(HttpStatus.CREATED).body(service.create(planet));
+		}
+		return queue.submit(planet)
+				.map(status -> ResponseEntity.accepted()
+						.location(ServletUriComponentsBuilder.fromCurrentContextPath()
+								.path("/planets/ingest/{trackingId}").buildAndExpand(status.trackingId()).toUri())
+						.header("Preference-Applied", PREFER_ASYNC)
+						.body(status))
+				.orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+						.header(HttpHeaders.RETRY_AFTER, "1")
+						.build());
+	}
+
+	// A preference is its token, before any "=value" or ";parameter"; tokens are case-insensitive.
+	static boolean prefers(List<String> headers, String preference) {
+		for (String header : headers) {
+			for (String element : header.split(",")) {
+				String token = element.split("[;=]", 2)[0].strip();
+				if (token.toLowerCase(Locale.ROOT).equals(preference)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@GetMapping("/ingest/{trackingId}")
+	public ResponseEntity<IngestStatus> status(@PathVariable String trackingId) {
+		return queue.status(trackingId).map(status -> ResponseEntity.ok(status))
+				.orElseGet(() -> ResponseEntity.notFound().build());
+	}
+
+}
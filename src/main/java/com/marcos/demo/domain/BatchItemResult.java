@@ -0,0 +1,21 @@
+package com.marcos.demo.domain;
+
+public record BatchItemResult(int index, String name, Status status, Long id) {
+
+	public enum Status {
+		CREATED, CONFLICT, INVALID
+	}
+
+	public static BatchItemResult created(int index, String name, Long id) {
+		return new BatchItemResult(index, name, Status.CREATED, id);
+	}
+
+	public static BatchItemResult conflict(int index, String name) {
+		return new BatchItemResult(index, name, Status.CONFLICT, null);
+	}
+
+	public static BatchItemResult invalid(int index, String name) {
+		return new BatchItemResult(index, name, Status.INVALID, null);
+	}
+
+}
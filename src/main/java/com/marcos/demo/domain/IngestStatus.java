@@ -0,0 +1,26 @@
+package com.marcos.demo.domain;
+
+public record IngestStatus(String trackingId, String name, State state, Long id) {
+
+	public enum State {
+		QUEUED, CREATED, DUPLICATE, INVALID, FAILED
+	}
+
+	public static IngestStatus queued(String trackingId, String name) {
+		return new IngestStatus(trackingId, name, State.QUEUED, null);
+	}
+
+	public static IngestStatus failed(String trackingId, String name) {
+		return new IngestStatus(trackingId, name, State.FAILED, null);
+	}
+
+	public static IngestStatus of(String trackingId, BatchItemResult result) {
+		State state = switch (result.status()) {
+		case CREATED -> State.CREATED;
+		case CONFLICT -> State.DUPLICATE;
+		case INVALID -> State.INVALID;
+		};
+		return new IngestStatus(trackingId, result.name(), state, result.id());
+	}
+
+}
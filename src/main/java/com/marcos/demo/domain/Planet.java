@@ -1,13 +1,26 @@
 package com.marcos.demo.domain;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotEmpty;
 
 @Entity
@@ -27,6 +40,28 @@ public class Planet {
 	@NotEmpty
 	@Column(nullable = false)
 	private String terain;
+	
+	@Version
+	@JsonIgnore
+	private Long version;
+	
+	// Maintained by the database (see V2__planet_lookup_keys.sql); only used for filtering.
+	@Column(name = "climate_key", insertable = false, updatable = false)
+	private String climateKey;
+	@Column(name = "terrain_key", insertable = false, updatable = false)
+	private String terrainKey;
+	
+	// One row per comma-separated token, so "mountains" can be found inside "grasslands, mountains".
+	@ElementCollection
+	@CollectionTable(name = "planet_climate_tokens", joinColumns = @JoinColumn(name = "planet_id"),
+			foreignKey = @ForeignKey(name = "fk_planet_climate_tokens_planet"))
+	@Column(name = "token", nullable = false)
+	private Set<String> climateTokens = new HashSet<>();
+	@ElementCollection
+	@CollectionTable(name = "planet_terrain_tokens", joinColumns = @JoinColumn(name = "planet_id"),
+			foreignKey = @ForeignKey(name = "fk_planet_terrain_tokens_planet"))
+	@Column(name = "token", nullable = false)
+	private Set<String> terrainTokens = new HashSet<>();
 
 	public Planet() {
 		// TODO Auto-generated constructor stub
@@ -37,21 +72,21 @@ public class Planet {
 	public Planet(Long id, @NotEmpty String name, @NotEmpty String climate, @NotEmpty String terain) {
 		this.id = id;
 		this.name = name;
-		this.climate = climate;
-		this.terain = terain;
+		setClimate(climate);
+		setTerain(terain);
 	}
 
 
 
 	public Planet(String name, String climate, String terain) {
 		this.name = name;
-		this.climate = climate;
-		this.terain = terain;
+		setClimate(climate);
+		setTerain(terain);
 	}
 	
 	public Planet(String climate, String terain) {
-		this.climate = climate;
-		this.terain = terain;
+		setClimate(climate);
+		setTerain(terain);
 	}
 
 	public Long getId() {
@@ -62,6 +97,10 @@ public class Planet {
 		this.id = id;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -76,6 +115,8 @@ public class Planet {
 
 	public void setClimate(String climate) {
 		this.climate = climate;
+		this.climateTokens.clear();
+		this.climateTokens.addAll(tokens(climate));
 	}
 
 	public String getTerain() {
@@ -84,11 +125,49 @@ public class Planet {
 
 	public void setTerain(String terain) {
 		this.terain = terain;
+		this.terrainTokens.clear();
+		this.terrainTokens.addAll(tokens(terain));
+	}
+
+	public static String lookupKey(String value) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		return value.trim().toLowerCase(Locale.ROOT);
+	}
+	
+	public static Set<String> tokens(String value) {
+		if (value == null) {
+			return Set.of();
+		}
+		return Arrays.stream(value.split(","))
+				.map(Planet::lookupKey)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+	
+	static Planet lookupProbe(Planet planet) {
+		Planet probe = new Planet(planet.getId(), planet.getName(), null, null);
+		probe.climateKey = lookupKey(planet.getClimate());
+		probe.terrainKey = lookupKey(planet.getTerain());
+		return probe;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
-		return EqualsBuilder.reflectionEquals(obj, this);
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Planet other)) {
+			return false;
+		}
+		return Objects.equals(id, other.id) && Objects.equals(name, other.name)
+				&& Objects.equals(climate, other.climate) && Objects.equals(terain, other.terain);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, name, climate, terain);
 	}
 	
 	
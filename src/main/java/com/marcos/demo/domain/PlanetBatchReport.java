@@ -0,0 +1,25 @@
+package com.marcos.demo.domain;
+
+import java.util.List;
+
+import com.marcos.demo.domain.BatchItemResult.Status;
+
+public record PlanetBatchReport(int created, int conflicts, int invalid, List<BatchItemResult> items) {
+
+	public static PlanetBatchReport of(List<BatchItemResult> items) {
+		int created = 0;
+		int conflicts = 0;
+		int invalid = 0;
+		for (BatchItemResult item : items) {
+			if (item.status() == Status.CREATED) {
+				created++;
+			} else if (item.status() == Status.CONFLICT) {
+				conflicts++;
+			} else {
+				invalid++;
+			}
+		}
+		return new PlanetBatchReport(created, conflicts, invalid, items);
+	}
+
+}
@@ -0,0 +1,5 @@
+package com.marcos.demo.domain;
+
+// bytes is the compressed size of the written file.
+public record PlanetExportReport(String file, long rows, long bytes, long millis) {
+}
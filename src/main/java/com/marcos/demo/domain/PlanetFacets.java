@@ -0,0 +1,25 @@
+package com.marcos.demo.domain;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Planet counts per case-folded climate and terrain value, most common first.
+public record PlanetFacets(long total, Map<String, Long> climate, Map<String, Long> terrain) {
+
+	public static PlanetFacets of(Map<String, Long> climate, Map<String, Long> terrain) {
+		long total = climate.values().stream().mapToLong(Long::longValue).sum();
+		return new PlanetFacets(total, sorted(climate), sorted(terrain));
+	}
+
+	private static Map<String, Long> sorted(Map<String, Long> counts) {
+		Map<String, Long> sorted = new LinkedHashMap<>();
+		counts.entrySet().stream()
+				.filter(count -> count.getValue() > 0)
+				.sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+						.thenComparing(Map.Entry.comparingByKey()))
+				.forEach(count -> sorted.put(count.getKey(), count.getValue()));
+		return sorted;
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.marcos.demo.domain;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum PlanetFileFormat {
+	CSV("csv"), NDJSON("ndjson");
+
+	private final String extension;
+
+	PlanetFileFormat(String extension) {
+		this.extension = extension;
+	}
+
+	public String extension() {
+		return extension;
+	}
+
+	public static PlanetFileFormat of(Path file) {
+		String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		if (name.endsWith(".csv")) {
+			return CSV;
+		}
+		if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+			return NDJSON;
+		}
+		throw new IllegalArgumentException("Cannot tell the format of " + file + " from its name");
+	}
+
+}
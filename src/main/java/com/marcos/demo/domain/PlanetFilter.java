@@ -0,0 +1,58 @@
+package com.marcos.demo.domain;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public record PlanetFilter(String climate, String terrain, Set<String> climateTokens, Set<String> terrainTokens,
+		TokenMatch match) {
+
+	public static final PlanetFilter ALL = new PlanetFilter(null, null);
+
+	public PlanetFilter {
+		climateTokens = normalize(climateTokens);
+		terrainTokens = normalize(terrainTokens);
+		match = match == null ? TokenMatch.ANY : match;
+	}
+
+	public PlanetFilter(String climate, String terrain) {
+		this(climate, terrain, Set.of(), Set.of(), TokenMatch.ANY);
+	}
+
+	public String climateKey() {
+		return Planet.lookupKey(climate);
+	}
+
+	public String terrainKey() {
+		return Planet.lookupKey(terrain);
+	}
+
+	public boolean matchesAll() {
+		return climateKey() == null && terrainKey() == null && climateTokens.isEmpty() && terrainTokens.isEmpty();
+	}
+
+	// The same test the SQL filters apply, for values held in memory.
+	public boolean matches(String planetClimate, String planetTerrain) {
+		return (climateKey() == null || climateKey().equals(Planet.lookupKey(planetClimate)))
+				&& (terrainKey() == null || terrainKey().equals(Planet.lookupKey(planetTerrain)))
+				&& matchesTokens(climateTokens, planetClimate) && matchesTokens(terrainTokens, planetTerrain);
+	}
+
+	private boolean matchesTokens(Set<String> wanted, String value) {
+		if (wanted.isEmpty()) {
+			return true;
+		}
+		Set<String> tokens = Planet.tokens(value);
+		return match == TokenMatch.ALL ? tokens.containsAll(wanted) : wanted.stream().anyMatch(tokens::contains);
+	}
+
+	private static Set<String> normalize(Collection<String> tokens) {
+		if (tokens == null) {
+			return Set.of();
+		}
+		return tokens.stream()
+				.flatMap(token -> Planet.tokens(token).stream())
+				.collect(Collectors.toUnmodifiableSet());
+	}
+
+}
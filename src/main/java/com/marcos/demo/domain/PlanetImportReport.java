@@ -0,0 +1,6 @@
+package com.marcos.demo.domain;
+
+// Counts cover the whole file, including rows a resumed import had committed before it stopped.
+public record PlanetImportReport(long rows, long created, long conflicts, long invalid, long resumedAt, long bytes,
+		long millis) {
+}
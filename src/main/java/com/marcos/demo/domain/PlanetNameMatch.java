@@ -0,0 +1,6 @@
+package com.marcos.demo.domain;
+
+// similarity is the Jaccard index of the two names' trigram sets: 1 for the same name, 0 for nothing shared.
+public record PlanetNameMatch(Long id, String name, double similarity) {
+
+}
@@ -0,0 +1,11 @@
+package com.marcos.demo.domain;
+
+import java.util.List;
+
+public record PlanetPage(List<PlanetView> content, String nextCursor) {
+
+	public boolean hasNext() {
+		return nextCursor != null;
+	}
+
+}
@@ -0,0 +1,5 @@
+package com.marcos.demo.domain;
+
+public record PlanetSuggestion(Long id, String name) {
+
+}
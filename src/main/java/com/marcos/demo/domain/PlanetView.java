@@ -0,0 +1,18 @@
+package com.marcos.demo.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// Immutable read model, selected straight into this record so reads never build managed entities.
+// Components mirror Planet's JSON properties, "terain" included; the version travels as the ETag.
+public record PlanetView(Long id, String name, String climate, String terain, @JsonIgnore long version) {
+
+	public PlanetView(Long id, String name, String climate, String terain) {
+		this(id, name, climate, terain, 0L);
+	}
+
+	public static PlanetView of(Planet planet) {
+		return new PlanetView(planet.getId(), planet.getName(), planet.getClimate(), planet.getTerain(),
+				planet.getVersion() == null ? 0L : planet.getVersion());
+	}
+
+}
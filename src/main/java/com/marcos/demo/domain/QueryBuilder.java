@@ -7,8 +7,9 @@ public class QueryBuilder {
 	
 	
 	public static Example<Planet> makeQuery(Planet planet){
-		ExampleMatcher exampleMatcher = ExampleMatcher.matchingAll().withIgnoreCase().withIgnoreNullValues();
-		return Example.of(planet, exampleMatcher);
+		// Matches the case-folded key columns exactly, so the lookup indexes can be used.
+		ExampleMatcher exampleMatcher = ExampleMatcher.matchingAll().withIgnoreNullValues();
+		return Example.of(Planet.lookupProbe(planet), exampleMatcher);
 	}
 
 }
@@ -0,0 +1,5 @@
+package com.marcos.demo.domain;
+
+public enum TokenMatch {
+	ANY, ALL
+}
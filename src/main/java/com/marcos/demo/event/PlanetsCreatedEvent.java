@@ -0,0 +1,10 @@
+package com.marcos.demo.event;
+
+import java.util.List;
+
+import com.marcos.demo.domain.PlanetView;
+
+// Published once the planets are committed.
+public record PlanetsCreatedEvent(List<PlanetView> planets) {
+
+}
@@ -0,0 +1,8 @@
+package com.marcos.demo.event;
+
+import java.util.Collection;
+
+// Published once the delete is committed. Ids that did not exist may be included.
+public record PlanetsDeletedEvent(Collection<Long> ids) {
+
+}
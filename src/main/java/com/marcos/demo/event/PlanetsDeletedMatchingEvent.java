@@ -0,0 +1,9 @@
+package com.marcos.demo.event;
+
+import com.marcos.demo.domain.PlanetFilter;
+
+// Published once a filtered delete that removed rows is committed. It does not name the rows, so
+// listeners holding planets drop or reload them.
+public record PlanetsDeletedMatchingEvent(PlanetFilter filter) {
+
+}
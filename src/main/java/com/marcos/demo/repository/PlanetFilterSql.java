@@ -0,0 +1,54 @@
+package com.marcos.demo.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.marcos.demo.domain.PlanetFilter;
+import com.marcos.demo.domain.TokenMatch;
+
+/*
+ * A PlanetFilter as plain SQL over the planets columns, for the R2DBC reads and the filtered deletes.
+ * Token conditions read the membership tables directly instead of joining planets again, which MySQL
+ * refuses inside a DELETE from planets. Collection parameters are expanded by Hibernate and DatabaseClient.
+ */
+public final class PlanetFilterSql {
+
+	private PlanetFilterSql() {
+	}
+
+	// The conditions joined with " and ", columns qualified by prefix ("p." or ""); empty when the filter matches all.
+	public static String where(PlanetFilter filter, String prefix, Map<String, Object> parameters) {
+		List<String> conditions = new ArrayList<>();
+		if (filter.climateKey() != null) {
+			conditions.add(prefix + "climate_key = :climate");
+			parameters.put("climate", filter.climateKey());
+		}
+		if (filter.terrainKey() != null) {
+			conditions.add(prefix + "terrain_key = :terrain");
+			parameters.put("terrain", filter.terrainKey());
+		}
+		tokenCondition(conditions, parameters, prefix, "planet_climate_tokens", "climateTokens", filter.climateTokens(),
+				filter.match());
+		tokenCondition(conditions, parameters, prefix, "planet_terrain_tokens", "terrainTokens", filter.terrainTokens(),
+				filter.match());
+		return String.join(" and ", conditions);
+	}
+
+	private static void tokenCondition(List<String> conditions, Map<String, Object> parameters, String prefix,
+			String table, String name, Set<String> tokens, TokenMatch match) {
+		if (tokens.isEmpty()) {
+			return;
+		}
+		StringBuilder condition = new StringBuilder(prefix).append("id in (select t.planet_id from ").append(table)
+				.append(" t where t.token in (:").append(name).append(')');
+		if (match == TokenMatch.ALL) {
+			condition.append(" group by t.planet_id having count(*) = :").append(name).append("Count");
+			parameters.put(name + "Count", (long) tokens.size());
+		}
+		conditions.add(condition.append(')').toString());
+		parameters.put(name, tokens);
+	}
+
+}
@@ -1,19 +1,41 @@
 package com.marcos.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.QueryByExampleExecutor;
 
 import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetSuggestion;
+import com.marcos.demo.domain.PlanetView;
 
-public interface PlanetRepository extends CrudRepository<Planet, Long>, QueryByExampleExecutor<Planet>{
+public interface PlanetRepository extends CrudRepository<Planet, Long>, QueryByExampleExecutor<Planet>,
+		PlanetRepositoryCustom {
 
 	Optional<Planet> findByName(String name);
 
+	@Query("select new com.marcos.demo.domain.PlanetView(p.id, p.name, p.climate, p.terain, p.version) from Planet p where p.id = :id")
+	Optional<PlanetView> findViewById(Long id);
+
+	@Query("select new com.marcos.demo.domain.PlanetView(p.id, p.name, p.climate, p.terain, p.version) from Planet p where p.name = :name")
+	Optional<PlanetView> findViewByName(String name);
+
+	// The LIKE 'x%' fallback for name suggestions while PlanetNameIndex is loading or disabled.
+	List<PlanetSuggestion> findByNameStartingWithIgnoreCaseOrderByNameAsc(String prefix, Limit limit);
+
 	@Override
 	<S extends Planet> List<S> findAll(Example<S> example);
 
+	// One statement and no entity load, unlike deleteById; token rows go through ON DELETE CASCADE (V3).
+	// Needs an open transaction and does not touch the persistence context.
+	@Modifying
+	@Query("delete from Planet p where p.id in :ids")
+	int deleteByIds(Collection<Long> ids);
+
 }
@@ -0,0 +1,24 @@
+package com.marcos.demo.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.marcos.demo.domain.PlanetFacets;
+import com.marcos.demo.domain.PlanetFilter;
+import com.marcos.demo.domain.PlanetView;
+
+public interface PlanetRepositoryCustom {
+
+	List<PlanetView> findPage(PlanetFilter filter, long after, int limit);
+
+	// Needs an open transaction; on MySQL the fetch size only takes effect with useCursorFetch=true.
+	Stream<PlanetView> streamAll(PlanetFilter filter);
+
+	List<Long> findIds(PlanetFilter filter);
+
+	// One statement however many planets match; needs an open transaction.
+	int deleteMatching(PlanetFilter filter);
+
+	PlanetFacets countFacets(PlanetFilter filter);
+
+}
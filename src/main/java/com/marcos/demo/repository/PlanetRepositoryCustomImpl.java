@@ -0,0 +1,134 @@
+package com.marcos.demo.repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.marcos.demo.domain.PlanetFacets;
+import com.marcos.demo.domain.PlanetFilter;
+import com.marcos.demo.domain.PlanetView;
+import com.marcos.demo.domain.TokenMatch;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+
+/*
+ * Filters are rendered only for the values that are present. A catch-all
+ * "(:climate is null or ...)" predicate would be cheaper to write but keeps
+ * some optimizers (H2 among them) from using the lookup key indexes.
+ * Rows are selected into PlanetView, so Hibernate keeps no entity or snapshot for them.
+ */
+class PlanetRepositoryCustomImpl implements PlanetRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${planet.stream.fetch-size:500}")
+	private int fetchSize;
+
+	private static final String ORDER_BY_ID = " order by p.id";
+	private static final String VIEW = "new com.marcos.demo.domain.PlanetView(p.id, p.name, p.climate, p.terain, p.version)";
+	private static final String DELETE = "delete from planets";
+
+	@Override
+	public List<PlanetView> findPage(PlanetFilter filter, long after, int limit) {
+		return query(VIEW, PlanetView.class, filter, after, ORDER_BY_ID).setMaxResults(limit).getResultList();
+	}
+
+	@Override
+	public Stream<PlanetView> streamAll(PlanetFilter filter) {
+		return query(VIEW, PlanetView.class, filter, 0L, ORDER_BY_ID)
+				.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+				.getResultStream();
+	}
+
+	@Override
+	public List<Long> findIds(PlanetFilter filter) {
+		return query("p.id", Long.class, filter, 0L, ORDER_BY_ID).getResultList();
+	}
+
+	// Native SQL (PlanetFilterSql): the JPQL token condition selects from planets, which MySQL does
+	// not allow in a DELETE from planets. Token rows go through ON DELETE CASCADE (V3).
+	@Override
+	public int deleteMatching(PlanetFilter filter) {
+		Map<String, Object> parameters = new HashMap<>();
+		String where = PlanetFilterSql.where(filter, "", parameters);
+		Query delete = entityManager.createNativeQuery(where.isEmpty() ? DELETE : DELETE + " where " + where);
+		parameters.forEach(delete::setParameter);
+		return delete.executeUpdate();
+	}
+
+	@Override
+	public PlanetFacets countFacets(PlanetFilter filter) {
+		return PlanetFacets.of(countBy("p.climateKey", filter), countBy("p.terrainKey", filter));
+	}
+
+	// Served by the lookup key indexes, so the database can group without reading the rows.
+	private Map<String, Long> countBy(String key, PlanetFilter filter) {
+		Map<String, Long> counts = new HashMap<>();
+		for (Object[] row : query(key + ", count(p)", Object[].class, filter, 0L, " group by " + key).getResultList()) {
+			counts.put(row[0] == null ? "" : (String) row[0], (Long) row[1]);
+		}
+		return counts;
+	}
+
+	private <T> TypedQuery<T> query(String select, Class<T> type, PlanetFilter filter, long after, String tail) {
+		StringBuilder jpql = new StringBuilder("select ").append(select).append(" from Planet p where p.id > :after");
+		if (filter.climateKey() != null) {
+			jpql.append(" and p.climateKey = :climate");
+		}
+		if (filter.terrainKey() != null) {
+			jpql.append(" and p.terrainKey = :terrain");
+		}
+		if (!filter.climateTokens().isEmpty()) {
+			jpql.append(tokenCondition("climateTokens", filter.match()));
+		}
+		if (!filter.terrainTokens().isEmpty()) {
+			jpql.append(tokenCondition("terrainTokens", filter.match()));
+		}
+		jpql.append(tail);
+
+		TypedQuery<T> query = entityManager.createQuery(jpql.toString(), type)
+				.setFlushMode(FlushModeType.COMMIT)
+				.setParameter("after", after);
+		if (filter.climateKey() != null) {
+			query.setParameter("climate", filter.climateKey());
+		}
+		if (filter.terrainKey() != null) {
+			query.setParameter("terrain", filter.terrainKey());
+		}
+		bindTokens(query, "climateTokens", filter.climateTokens(), filter.match());
+		bindTokens(query, "terrainTokens", filter.terrainTokens(), filter.match());
+		return query;
+	}
+
+	// Both forms are driven by the (token, planet_id) index of the membership table.
+	private static String tokenCondition(String collection, TokenMatch match) {
+		String alias = collection.substring(0, 1);
+		String members = "select " + alias + "m.id from Planet " + alias + "m join " + alias + "m." + collection
+				+ " " + alias + "t where " + alias + "t in :" + collection;
+		if (match == TokenMatch.ALL) {
+			members += " group by " + alias + "m.id having count(" + alias + "t) = :" + collection + "Count";
+		}
+		return " and p.id in (" + members + ")";
+	}
+
+	private static void bindTokens(TypedQuery<?> query, String collection, Set<String> tokens, TokenMatch match) {
+		if (tokens.isEmpty()) {
+			return;
+		}
+		query.setParameter(collection, tokens);
+		if (match == TokenMatch.ALL) {
+			query.setParameter(collection + "Count", (long) tokens.size());
+		}
+	}
+
+}
@@ -0,0 +1,5 @@
+package com.marcos.demo.service;
+
+public record CacheStats(long hits, long misses, long evictions, int size, int maxSize) {
+
+}
@@ -0,0 +1,11 @@
+package com.marcos.demo.service;
+
+public class InvalidCursorException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidCursorException(String cursor) {
+		super("Invalid page cursor: " + cursor);
+	}
+
+}
@@ -0,0 +1,192 @@
+package com.marcos.demo.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.marcos.demo.domain.BatchItemResult;
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetBatchReport;
+import com.marcos.demo.domain.PlanetView;
+import com.marcos.demo.event.PlanetsCreatedEvent;
+
+import jakarta.validation.Validator;
+
+/*
+ * Planet ids are IDENTITY columns, which stops Hibernate from batching inserts. This writer goes
+ * through plain JDBC instead: each chunk is one batched INSERT with generated keys (plus the token
+ * rows for those keys), in its own transaction, so a failing chunk never undoes the ones before it.
+ */
+@Component
+public class PlanetBatchWriter {
+
+	private static final String INSERT = "insert into planets (name, climate, terain) values (?, ?, ?)";
+	private static final String INSERT_CLIMATE_TOKEN = "insert into planet_climate_tokens (planet_id, token) values (?, ?)";
+	private static final String INSERT_TERRAIN_TOKEN = "insert into planet_terrain_tokens (planet_id, token) values (?, ?)";
+	private static final String EXISTING_NAMES = "select name from planets where name in (:names)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final NamedParameterJdbcTemplate namedJdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final Validator validator;
+	private final ApplicationEventPublisher events;
+	private final PlanetCatalogGeneration catalogGeneration;
+	private final int batchSize;
+
+	public PlanetBatchWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			Validator validator, ApplicationEventPublisher events, PlanetCatalogGeneration catalogGeneration,
+			@Value("${planet.batch.size:500}") int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("planet.batch.size must be positive");
+		}
+		this.jdbcTemplate = jdbcTemplate;
+		this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.validator = validator;
+		this.events = events;
+		this.catalogGeneration = catalogGeneration;
+		this.batchSize = batchSize;
+	}
+
+	public int batchSize() {
+		return batchSize;
+	}
+
+	public PlanetBatchReport write(Iterator<Planet> planets) {
+		List<BatchItemResult> results = new ArrayList<>();
+		List<Planet> chunk = new ArrayList<>(batchSize);
+		while (planets.hasNext()) {
+			chunk.add(planets.next());
+			if (chunk.size() == batchSize) {
+				results.addAll(writeChunk(results.size(), chunk));
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			results.addAll(writeChunk(results.size(), chunk));
+		}
+		return PlanetBatchReport.of(results);
+	}
+
+	public List<BatchItemResult> writeChunk(int offset, List<Planet> chunk) {
+		BatchItemResult[] results = new BatchItemResult[chunk.size()];
+		List<Integer> pending = new ArrayList<>(chunk.size());
+		Set<String> names = new HashSet<>();
+		for (int i = 0; i < chunk.size(); i++) {
+			Planet planet = chunk.get(i);
+			// A JSON array may hold a bare null; it is reported like any other invalid item.
+			if (planet == null) {
+				results[i] = BatchItemResult.invalid(offset + i, null);
+			} else if (!validator.validate(planet).isEmpty()) {
+				results[i] = BatchItemResult.invalid(offset + i, planet.getName());
+			} else if (!names.add(planet.getName())) {
+				results[i] = BatchItemResult.conflict(offset + i, planet.getName());
+			} else {
+				pending.add(i);
+			}
+		}
+
+		if (!pending.isEmpty()) {
+			Set<String> existing = new HashSet<>(namedJdbcTemplate.queryForList(EXISTING_NAMES,
+					Map.of("names", names), String.class));
+			pending.removeIf(i -> {
+				boolean taken = existing.contains(chunk.get(i).getName());
+				if (taken) {
+					results[i] = BatchItemResult.conflict(offset + i, chunk.get(i).getName());
+				}
+				return taken;
+			});
+		}
+
+		if (!pending.isEmpty()) {
+			List<Planet> inserts = pending.stream().map(chunk::get).toList();
+			try {
+				List<Long> ids = insertAndPublish(inserts);
+				for (int k = 0; k < pending.size(); k++) {
+					int i = pending.get(k);
+					results[i] = BatchItemResult.created(offset + i, chunk.get(i).getName(), ids.get(k));
+				}
+			} catch (DataIntegrityViolationException ex) {
+				// Someone inserted one of these names after our check; settle each row on its own.
+				for (int i : pending) {
+					results[i] = insertOne(offset + i, chunk.get(i));
+				}
+			}
+		}
+		return Arrays.asList(results);
+	}
+
+	private BatchItemResult insertOne(int index, Planet planet) {
+		try {
+			List<Long> ids = insertAndPublish(List.of(planet));
+			return BatchItemResult.created(index, planet.getName(), ids.get(0));
+		} catch (DataIntegrityViolationException ex) {
+			return BatchItemResult.conflict(index, planet.getName());
+		}
+	}
+
+	private List<Long> insertAndPublish(List<Planet> planets) {
+		List<Long> ids = transactionTemplate.execute(status -> insert(planets));
+		List<PlanetView> created = new ArrayList<>(planets.size());
+		for (int i = 0; i < planets.size(); i++) {
+			Planet planet = planets.get(i);
+			created.add(new PlanetView(ids.get(i), planet.getName(), planet.getClimate(), planet.getTerain()));
+		}
+		events.publishEvent(new PlanetsCreatedEvent(created));
+		return ids;
+	}
+
+	private List<Long> insert(List<Planet> planets) {
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT, new String[] { "id" }),
+				new BatchPreparedStatementSetter() {
+
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						Planet planet = planets.get(i);
+						ps.setString(1, planet.getName());
+						ps.setString(2, planet.getClimate());
+						ps.setString(3, planet.getTerain());
+					}
+
+					@Override
+					public int getBatchSize() {
+						return planets.size();
+					}
+				}, keys);
+		List<Long> ids = keys.getKeyList().stream()
+				.map(row -> ((Number) row.values().iterator().next()).longValue())
+				.toList();
+
+		List<Object[]> climateTokens = new ArrayList<>();
+		List<Object[]> terrainTokens = new ArrayList<>();
+		for (int i = 0; i < planets.size(); i++) {
+			Long id = ids.get(i);
+			Planet.tokens(planets.get(i).getClimate()).forEach(token -> climateTokens.add(new Object[] { id, token }));
+			Planet.tokens(planets.get(i).getTerain()).forEach(token -> terrainTokens.add(new Object[] { id, token }));
+		}
+		jdbcTemplate.batchUpdate(INSERT_CLIMATE_TOKEN, climateTokens);
+		jdbcTemplate.batchUpdate(INSERT_TERRAIN_TOKEN, terrainTokens);
+		catalogGeneration.bump();
+		return ids;
+	}
+
+}
@@ -0,0 +1,175 @@
+package com.marcos.demo.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetView;
+
+@Component
+public class PlanetCache {
+
+	private final int maxSize;
+	private final long ttlNanos;
+	private final LongSupplier clock;
+
+	// A lock rather than synchronized so that virtual threads never pin their carrier here.
+	private final ReentrantLock lock = new ReentrantLock();
+	private final LinkedHashMap<Long, Entry> byId = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<String, Long> idsByName = new HashMap<>();
+
+	// Bumped on every invalidation so that a load which raced with a write is not stored.
+	private long generation;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	@Autowired
+	public PlanetCache(@Value("${planet.cache.max-size:10000}") int maxSize,
+			@Value("${planet.cache.ttl:5m}") Duration ttl) {
+		this(maxSize, ttl, System::nanoTime);
+	}
+
+	public PlanetCache(int maxSize, Duration ttl, LongSupplier clock) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("planet.cache.max-size must be positive");
+		}
+		this.maxSize = maxSize;
+		this.ttlNanos = ttl.toNanos();
+		this.clock = clock;
+	}
+
+	public Optional<PlanetView> getById(Long id) {
+		lock.lock();
+		try {
+			Entry entry = byId.get(id);
+			if (entry == null || isExpired(entry)) {
+				if (entry != null) {
+					remove(id);
+					evictions++;
+				}
+				misses++;
+				return Optional.empty();
+			}
+			hits++;
+			return Optional.of(entry.planet());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public Optional<PlanetView> getByName(String name) {
+		lock.lock();
+		try {
+			Long id = idsByName.get(name);
+			if (id == null) {
+				misses++;
+				return Optional.empty();
+			}
+			return getById(id);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long generation() {
+		lock.lock();
+		try {
+			return generation;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void put(PlanetView planet, long loadedAt) {
+		lock.lock();
+		try {
+			if (loadedAt != generation || planet.id() == null) {
+				return;
+			}
+			remove(planet.id());
+			byId.put(planet.id(), new Entry(planet, clock.getAsLong() + ttlNanos));
+			idsByName.put(planet.name(), planet.id());
+			Iterator<Map.Entry<Long, Entry>> eldest = byId.entrySet().iterator();
+			while (byId.size() > maxSize) {
+				Entry evicted = eldest.next().getValue();
+				eldest.remove();
+				idsByName.remove(evicted.planet().name());
+				evictions++;
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void evict(Long id) {
+		lock.lock();
+		try {
+			generation++;
+			remove(id);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void evict(Planet planet) {
+		lock.lock();
+		try {
+			generation++;
+			if (planet.getId() != null) {
+				remove(planet.getId());
+			}
+			Long id = idsByName.get(planet.getName());
+			if (id != null) {
+				remove(id);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void clear() {
+		lock.lock();
+		try {
+			generation++;
+			byId.clear();
+			idsByName.clear();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public CacheStats stats() {
+		lock.lock();
+		try {
+			return new CacheStats(hits, misses, evictions, byId.size(), maxSize);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void remove(Long id) {
+		Entry entry = byId.remove(id);
+		if (entry != null) {
+			idsByName.remove(entry.planet().name(), id);
+		}
+	}
+
+	private boolean isExpired(Entry entry) {
+		return clock.getAsLong() - entry.expiresAt() >= 0;
+	}
+
+	private record Entry(PlanetView planet, long expiresAt) {
+	}
+
+}
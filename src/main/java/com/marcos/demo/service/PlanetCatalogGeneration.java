@@ -0,0 +1,64 @@
+package com.marcos.demo.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.marcos.demo.event.PlanetsCreatedEvent;
+import com.marcos.demo.event.PlanetsDeletedEvent;
+import com.marcos.demo.event.PlanetsDeletedMatchingEvent;
+
+/*
+ * current() counts the committed catalog changes this instance has seen and keys its in-memory
+ * caches. The list and facet ETags must hold across instances, so they come from the database
+ * instead: every write transaction bumps the single planet_catalog row (V6) and etag() reads it.
+ * Writes made with plain SQL have to bump it as well.
+ */
+@Component
+public class PlanetCatalogGeneration {
+
+	public static final String BUMP = "update planet_catalog set generation = generation + 1 where id = 1";
+	public static final String SELECT = "select generation from planet_catalog where id = 1";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final AtomicLong generation = new AtomicLong();
+
+	public PlanetCatalogGeneration(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	public long current() {
+		return generation.get();
+	}
+
+	// Last statement of the write's transaction: the row lock is held only until its commit.
+	public void bump() {
+		jdbcTemplate.update(BUMP);
+	}
+
+	public String etag() {
+		return etag(jdbcTemplate.queryForObject(SELECT, Long.class));
+	}
+
+	public static String etag(long generation) {
+		return "catalog-" + generation;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCreated(PlanetsCreatedEvent event) {
+		generation.incrementAndGet();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onDeleted(PlanetsDeletedEvent event) {
+		generation.incrementAndGet();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onDeletedMatching(PlanetsDeletedMatchingEvent event) {
+		generation.incrementAndGet();
+	}
+
+}
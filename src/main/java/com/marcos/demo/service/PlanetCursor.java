@@ -0,0 +1,26 @@
+package com.marcos.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class PlanetCursor {
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+	private PlanetCursor() {
+	}
+
+	public static String encode(Long lastId) {
+		return ENCODER.encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+	}
+
+	public static long decode(String cursor) {
+		try {
+			return Long.parseLong(new String(DECODER.decode(cursor), StandardCharsets.US_ASCII));
+		} catch (IllegalArgumentException ex) {
+			throw new InvalidCursorException(cursor);
+		}
+	}
+
+}
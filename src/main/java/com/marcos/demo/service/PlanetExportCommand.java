@@ -0,0 +1,43 @@
+package com.marcos.demo.service;
+
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.marcos.demo.domain.PlanetExportReport;
+import com.marcos.demo.domain.PlanetFileFormat;
+
+/*
+ * java -jar demo.jar --spring.main.web-application-type=none --planet.export.file=planets.ndjson.gz
+ * Writes the export on startup and, without a web server, exits when done.
+ */
+@Component
+@ConditionalOnProperty("planet.export.file")
+public class PlanetExportCommand implements ApplicationRunner {
+
+	private static final Logger log = LoggerFactory.getLogger(PlanetExportCommand.class);
+
+	private final PlanetExporter exporter;
+	private final Path file;
+	private final PlanetFileFormat format;
+
+	public PlanetExportCommand(PlanetExporter exporter, @Value("${planet.export.file}") Path file,
+			@Value("${planet.export.format:ndjson}") String format) {
+		this.exporter = exporter;
+		this.file = file;
+		this.format = PlanetFileFormat.valueOf(format.toUpperCase());
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		PlanetExportReport report = exporter.export(file, format);
+		log.info("Export to {} finished: {}", file, report);
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.marcos.demo.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.marcos.demo.domain.PlanetExportReport;
+import com.marcos.demo.domain.PlanetFileFormat;
+import com.marcos.demo.domain.PlanetView;
+
+/*
+ * Full-catalog dumps from one read-consistent snapshot (PlanetService.exportSnapshot), gzip
+ * compressed. Each row is encoded straight into the deflater's buffer as the cursor hands it over,
+ * so heap use does not grow with the table. CSV columns are id,name,climate,terrain, the header
+ * PlanetImporter reads back. Files are written next to their target and moved into place once
+ * complete, so readers never see half a dump.
+ */
+@Component
+public class PlanetExporter {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final PlanetService service;
+	private final ObjectWriter json;
+
+	public PlanetExporter(PlanetService service, ObjectMapper mapper) {
+		this.service = service;
+		this.json = mapper.writerFor(PlanetView.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	}
+
+	public PlanetExportReport export(Path target, PlanetFileFormat format) throws IOException {
+		long start = System.nanoTime();
+		Path part = target.resolveSibling(target.getFileName() + ".part");
+		long rows;
+		try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			rows = write(format, Channels.newOutputStream(channel));
+			channel.force(false);
+		} catch (IOException | RuntimeException ex) {
+			Files.deleteIfExists(part);
+			throw ex;
+		}
+		Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return new PlanetExportReport(target.toString(), rows, Files.size(target), (System.nanoTime() - start) / 1_000_000);
+	}
+
+	// Writes the gzip stream to out and finishes it, but leaves out open.
+	public long write(PlanetFileFormat format, OutputStream out) throws IOException {
+		GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+		Writer text = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+		long[] rows = { 0 };
+		try {
+			if (format == PlanetFileFormat.CSV) {
+				text.write("id,name,climate,terrain\n");
+			}
+			service.exportSnapshot(planet -> {
+				try {
+					if (format == PlanetFileFormat.CSV) {
+						text.write(Long.toString(planet.id()));
+						text.write(',');
+						csv(text, planet.name());
+						text.write(',');
+						csv(text, planet.climate());
+						text.write(',');
+						csv(text, planet.terain());
+					} else {
+						json.writeValue(text, planet);
+					}
+					text.write('\n');
+					rows[0]++;
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+		} catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+		text.flush();
+		gzip.finish();
+		return rows[0];
+	}
+
+	private static void csv(Writer out, String value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			out.write(value);
+			return;
+		}
+		out.write('"');
+		out.write(value.replace("\"", "\"\""));
+		out.write('"');
+	}
+
+}
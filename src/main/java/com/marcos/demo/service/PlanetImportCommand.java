@@ -0,0 +1,45 @@
+package com.marcos.demo.service;
+
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.marcos.demo.domain.PlanetFileFormat;
+import com.marcos.demo.domain.PlanetImportReport;
+
+/*
+ * java -jar demo.jar --spring.main.web-application-type=none --planet.import.file=planets.csv
+ * Imports the file on startup and, without a web server, exits when done. A failed import fails
+ * startup and leaves its checkpoint; running the same command again resumes it.
+ */
+@Component
+@ConditionalOnProperty("planet.import.file")
+public class PlanetImportCommand implements ApplicationRunner {
+
+	private static final Logger log = LoggerFactory.getLogger(PlanetImportCommand.class);
+
+	private final PlanetImporter importer;
+	private final Path file;
+	private final String format;
+
+	public PlanetImportCommand(PlanetImporter importer, @Value("${planet.import.file}") Path file,
+			@Value("${planet.import.format:}") String format) {
+		this.importer = importer;
+		this.file = file;
+		this.format = format;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		PlanetImportReport report = importer.importFile(file,
+				format.isBlank() ? PlanetFileFormat.of(file) : PlanetFileFormat.valueOf(format.toUpperCase()));
+		log.info("Import of {} finished: {}", file, report);
+	}
+
+}
@@ -0,0 +1,359 @@
+package com.marcos.demo.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.marcos.demo.domain.BatchItemResult;
+import com.marcos.demo.domain.PlanetFileFormat;
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetImportReport;
+
+/*
+ * Loads CSV (optional name,climate,terrain header; RFC 4180 quoting) or NDJSON planet files. The
+ * file is read through a FileChannel into one reusable buffer and records are cut out of it in
+ * place: only the field values become Strings, never whole lines. Records go to PlanetBatchWriter
+ * in chunks; after each committed chunk the byte offset past it is saved next to the file
+ * (<file>.checkpoint), and a later import of the same file continues from there. The checkpoint
+ * also records the file's size and modification time; if either changed the file is not the one
+ * the offset belongs to and the import refuses to resume. Replaying the chunk that was in flight
+ * when an import died is harmless, its rows come back as conflicts.
+ */
+@Component
+public class PlanetImporter {
+
+	private static final Logger log = LoggerFactory.getLogger(PlanetImporter.class);
+
+	private static final JsonFactory JSON = new JsonFactory();
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final int HEADER_PROBE = 64 * 1024;
+	private static final long PROGRESS_INTERVAL_NANOS = 5_000_000_000L;
+	private static final int NAME = 0;
+	private static final int CLIMATE = 1;
+	private static final int TERRAIN = 2;
+	private static final int SKIP = -1;
+
+	private final PlanetBatchWriter writer;
+	private final int batchSize;
+
+	public PlanetImporter(PlanetBatchWriter writer, @Value("${planet.import.batch-size:2000}") int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("planet.import.batch-size must be positive");
+		}
+		this.writer = writer;
+		this.batchSize = batchSize;
+	}
+
+	public PlanetImportReport importFile(Path file, PlanetFileFormat format) throws IOException {
+		Path checkpoint = checkpointOf(file);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			Run run = new Run(file, format, channel.size(), Files.getLastModifiedTime(file).toMillis(), checkpoint);
+			run.read(channel);
+			Files.deleteIfExists(checkpoint);
+			return run.report();
+		}
+	}
+
+	public static Path checkpointOf(Path file) {
+		return file.resolveSibling(file.getFileName() + ".checkpoint");
+	}
+
+	private final class Run {
+
+		private final Path file;
+		private final PlanetFileFormat format;
+		private final long size;
+		private final long modified;
+		private final Path checkpoint;
+		private final long started = System.nanoTime();
+		private final long resumedAt;
+		private final long resumedRows;
+		private final List<Planet> chunk = new ArrayList<>(batchSize);
+
+		private int[] columns = { NAME, CLIMATE, TERRAIN };
+		private long offset;
+		private long rows;
+		private long created;
+		private long conflicts;
+		private long invalid;
+		private long lastProgress = started;
+
+		Run(Path file, PlanetFileFormat format, long size, long modified, Path checkpoint) throws IOException {
+			this.file = file;
+			this.format = format;
+			this.size = size;
+			this.modified = modified;
+			this.checkpoint = checkpoint;
+			if (Files.exists(checkpoint)) {
+				Properties saved = new Properties();
+				try (Reader reader = Files.newBufferedReader(checkpoint)) {
+					saved.load(reader);
+				}
+				if (!Long.toString(size).equals(saved.getProperty("size"))
+						|| !Long.toString(modified).equals(saved.getProperty("modified"))) {
+					throw new IllegalStateException(checkpoint + " was written for a different version of " + file
+							+ "; delete it to import the file from the start");
+				}
+				offset = Long.parseLong(saved.getProperty("offset"));
+				rows = Long.parseLong(saved.getProperty("rows"));
+				created = Long.parseLong(saved.getProperty("created"));
+				conflicts = Long.parseLong(saved.getProperty("conflicts"));
+				invalid = Long.parseLong(saved.getProperty("invalid"));
+				if (offset > size) {
+					throw new IllegalStateException(checkpoint + " points past the end of " + file
+							+ "; delete it to import the file from the start");
+				}
+				log.info("Resuming import of {} at byte {} ({} rows done)", file, offset, rows);
+			}
+			this.resumedAt = offset;
+			this.resumedRows = rows;
+		}
+
+		void read(FileChannel channel) throws IOException {
+			if (format == PlanetFileFormat.CSV) {
+				offset = Math.max(offset, header(channel));
+			}
+			channel.position(offset);
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			boolean eof = false;
+			while (!eof) {
+				if (!buffer.hasRemaining()) {
+					// A single record longer than the buffer.
+					buffer = ByteBuffer.wrap(Arrays.copyOf(buffer.array(), buffer.capacity() * 2))
+							.position(buffer.capacity());
+				}
+				eof = channel.read(buffer) < 0;
+				byte[] bytes = buffer.array();
+				int limit = buffer.position();
+				int consumed = records(bytes, limit, eof);
+				System.arraycopy(bytes, consumed, bytes, 0, limit - consumed);
+				buffer.position(limit - consumed);
+			}
+			flush();
+			log.info("Imported {}: {} rows, {} created, {} conflicts, {} invalid in {} ms", file, rows, created, conflicts,
+					invalid, elapsedMillis());
+		}
+
+		// Returns how many bytes of the buffer were complete records; offset then points past them.
+		private int records(byte[] bytes, int limit, boolean eof) throws IOException {
+			boolean csv = format == PlanetFileFormat.CSV;
+			boolean quoted = false;
+			int start = 0;
+			for (int i = 0; i < limit; i++) {
+				byte b = bytes[i];
+				if (csv && b == '"') {
+					quoted = !quoted;
+				} else if (b == '\n' && !quoted) {
+					record(bytes, start, i, i + 1 - start);
+					start = i + 1;
+				}
+			}
+			if (eof && start < limit) {
+				record(bytes, start, limit, limit - start);
+				start = limit;
+			}
+			return start;
+		}
+
+		private void record(byte[] bytes, int from, int to, int length) throws IOException {
+			offset += length;
+			if (to > from && bytes[to - 1] == '\r') {
+				to--;
+			}
+			if (isBlank(bytes, from, to)) {
+				return;
+			}
+			chunk.add(format == PlanetFileFormat.CSV ? csv(bytes, from, to) : json(bytes, from, to));
+			if (chunk.size() == batchSize) {
+				flush();
+			}
+		}
+
+		private void flush() throws IOException {
+			if (!chunk.isEmpty()) {
+				for (BatchItemResult result : writer.writeChunk((int) rows, chunk)) {
+					switch (result.status()) {
+					case CREATED -> created++;
+					case CONFLICT -> conflicts++;
+					case INVALID -> invalid++;
+					}
+				}
+				rows += chunk.size();
+				chunk.clear();
+			}
+			saveCheckpoint();
+			long now = System.nanoTime();
+			if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+				lastProgress = now;
+				log.info("Importing {}: {} rows ({}% of {} bytes), {} rows/s", file, rows, offset * 100 / size, size,
+						(long) ((rows - resumedRows) * 1e9 / (now - started)));
+			}
+		}
+
+		// Written to a sibling file and moved over the old one, so a crash never leaves half a checkpoint.
+		private void saveCheckpoint() throws IOException {
+			Properties saved = new Properties();
+			saved.setProperty("size", Long.toString(size));
+			saved.setProperty("modified", Long.toString(modified));
+			saved.setProperty("offset", Long.toString(offset));
+			saved.setProperty("rows", Long.toString(rows));
+			saved.setProperty("created", Long.toString(created));
+			saved.setProperty("conflicts", Long.toString(conflicts));
+			saved.setProperty("invalid", Long.toString(invalid));
+			Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+			try (Writer out = Files.newBufferedWriter(temp)) {
+				saved.store(out, null);
+			}
+			Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+
+		// Reads the first line; when it names the columns, their order is taken from it and it is skipped.
+		private long header(FileChannel channel) throws IOException {
+			ByteBuffer probe = ByteBuffer.allocate((int) Math.min(HEADER_PROBE, size));
+			channel.read(probe, 0);
+			byte[] bytes = probe.array();
+			int end = 0;
+			while (end < probe.position() && bytes[end] != '\n') {
+				end++;
+			}
+			String[] names = new String(bytes, 0, end, StandardCharsets.UTF_8).strip().split(",");
+			int[] header = new int[names.length];
+			boolean named = false;
+			for (int i = 0; i < names.length; i++) {
+				header[i] = switch (names[i].strip().replace("\"", "").toLowerCase(Locale.ROOT)) {
+				case "name" -> NAME;
+				case "climate" -> CLIMATE;
+				case "terain", "terrain" -> TERRAIN;
+				default -> SKIP;
+				};
+				named |= header[i] == NAME;
+			}
+			if (!named) {
+				return 0;
+			}
+			columns = header;
+			return Math.min(end + 1, size);
+		}
+
+		private Planet csv(byte[] bytes, int from, int to) {
+			String[] values = new String[3];
+			int column = 0;
+			int i = from;
+			while (i <= to && column < columns.length) {
+				String value;
+				if (i < to && bytes[i] == '"') {
+					int start = i + 1;
+					int j = start;
+					boolean escaped = false;
+					while (j < to) {
+						if (bytes[j] == '"') {
+							if (j + 1 < to && bytes[j + 1] == '"') {
+								escaped = true;
+								j += 2;
+								continue;
+							}
+							break;
+						}
+						j++;
+					}
+					value = new String(bytes, start, j - start, StandardCharsets.UTF_8);
+					if (escaped) {
+						value = value.replace("\"\"", "\"");
+					}
+					i = j + 1;
+					while (i < to && bytes[i] != ',') {
+						i++;
+					}
+				} else {
+					int j = i;
+					while (j < to && bytes[j] != ',') {
+						j++;
+					}
+					int start = i;
+					int end = j;
+					while (start < end && bytes[start] == ' ') {
+						start++;
+					}
+					while (end > start && bytes[end - 1] == ' ') {
+						end--;
+					}
+					value = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+					i = j;
+				}
+				if (columns[column] != SKIP) {
+					values[columns[column]] = value;
+				}
+				column++;
+				i++;
+			}
+			return new Planet(values[NAME], values[CLIMATE], values[TERRAIN]);
+		}
+
+		// A line that is not a JSON object is kept as a planet without fields, so it is counted as invalid.
+		private Planet json(byte[] bytes, int from, int to) throws IOException {
+			String[] values = new String[3];
+			try (JsonParser parser = JSON.createParser(bytes, from, to - from)) {
+				if (parser.nextToken() == JsonToken.START_OBJECT) {
+					while (parser.nextToken() == JsonToken.FIELD_NAME) {
+						String field = parser.currentName();
+						JsonToken value = parser.nextToken();
+						if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+							parser.skipChildren();
+							continue;
+						}
+						switch (field) {
+						case "name" -> values[NAME] = parser.getValueAsString();
+						case "climate" -> values[CLIMATE] = parser.getValueAsString();
+						case "terain", "terrain" -> values[TERRAIN] = parser.getValueAsString();
+						default -> {
+						}
+						}
+					}
+				}
+			} catch (JsonProcessingException ex) {
+				return new Planet(null, null, null);
+			}
+			return new Planet(values[NAME], values[CLIMATE], values[TERRAIN]);
+		}
+
+		private long elapsedMillis() {
+			return (System.nanoTime() - started) / 1_000_000;
+		}
+
+		PlanetImportReport report() {
+			return new PlanetImportReport(rows, created, conflicts, invalid, resumedAt, size, elapsedMillis());
+		}
+
+	}
+
+	private static boolean isBlank(byte[] bytes, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (bytes[i] != ' ' && bytes[i] != '\t') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
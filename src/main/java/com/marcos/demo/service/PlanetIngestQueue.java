@@ -0,0 +1,248 @@
+package com.marcos.demo.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.marcos.demo.domain.BatchItemResult;
+import com.marcos.demo.domain.IngestStatus;
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetBatchReport;
+
+/*
+ * Write-behind path for POST /planets with "Prefer: respond-async". Accepted planets wait in a
+ * bounded queue; a single flusher drains whatever has arrived (lingering briefly so bursts
+ * coalesce) and hands it to PlanetService.createBatch, i.e. batched inserts in per-chunk
+ * transactions. The outcome of each item is kept for a while under its tracking id.
+ * On shutdown the queue stops taking planets, the flusher writes out everything already accepted
+ * and then exits on a stop marker; it is never interrupted, since that would abort a batch mid-write.
+ */
+@Component
+public class PlanetIngestQueue implements SmartLifecycle {
+
+	private static final Logger log = LoggerFactory.getLogger(PlanetIngestQueue.class);
+
+	private static final Pending STOP = new Pending(null, null);
+
+	private final PlanetService service;
+	private final BlockingQueue<Pending> queue;
+	private final int batchSize;
+	private final long lingerNanos;
+	private final long offerTimeoutNanos;
+	private final int retention;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final LinkedHashMap<String, IngestStatus> statuses = new LinkedHashMap<>();
+
+	// Submits share the read side; stop() takes the write side, so nothing is queued behind the stop marker.
+	private final ReentrantReadWriteLock intake = new ReentrantReadWriteLock();
+	private boolean accepting = true;
+
+	private volatile boolean running;
+	private Thread flusher;
+
+	@Autowired
+	public PlanetIngestQueue(PlanetService service,
+			@Value("${planet.ingest.queue-capacity:10000}") int capacity,
+			@Value("${planet.ingest.batch-size:500}") int batchSize,
+			@Value("${planet.ingest.linger:20ms}") Duration linger,
+			@Value("${planet.ingest.offer-timeout:100ms}") Duration offerTimeout,
+			@Value("${planet.ingest.status-retention:100000}") int retention) {
+		if (capacity < 1 || batchSize < 1 || retention < 1) {
+			throw new IllegalArgumentException("planet.ingest sizes must be positive");
+		}
+		this.service = service;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.batchSize = batchSize;
+		this.lingerNanos = linger.toNanos();
+		this.offerTimeoutNanos = offerTimeout.toNanos();
+		this.retention = retention;
+	}
+
+	// Empty when the queue stays full for the whole offer timeout, or once shutdown has begun;
+	// either way callers should back off.
+	public Optional<IngestStatus> submit(Planet planet) throws InterruptedException {
+		intake.readLock().lock();
+		try {
+			if (!accepting) {
+				return Optional.empty();
+			}
+			IngestStatus queued = IngestStatus.queued(UUID.randomUUID().toString(), planet.getName());
+			remember(queued);
+			if (!queue.offer(new Pending(queued.trackingId(), planet), offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+				forget(queued.trackingId());
+				return Optional.empty();
+			}
+			return Optional.of(queued);
+		} finally {
+			intake.readLock().unlock();
+		}
+	}
+
+	public Optional<IngestStatus> status(String trackingId) {
+		lock.lock();
+		try {
+			return Optional.ofNullable(statuses.get(trackingId));
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int pending() {
+		return queue.size();
+	}
+
+	// Writes everything queued right now on the calling thread; returns the number of items written.
+	public int flush() {
+		int written = 0;
+		List<Pending> batch = new ArrayList<>(batchSize);
+		while (queue.drainTo(batch, batchSize) > 0) {
+			batch.remove(STOP);
+			if (!batch.isEmpty()) {
+				written += write(batch);
+			}
+			batch.clear();
+		}
+		return written;
+	}
+
+	@Override
+	public void start() {
+		intake.writeLock().lock();
+		try {
+			accepting = true;
+		} finally {
+			intake.writeLock().unlock();
+		}
+		running = true;
+		flusher = Thread.ofVirtual().name("planet-ingest").start(this::run);
+	}
+
+	@Override
+	public void stop() {
+		intake.writeLock().lock();
+		try {
+			accepting = false;
+		} finally {
+			intake.writeLock().unlock();
+		}
+		if (flusher != null && flusher.isAlive()) {
+			try {
+				// Behind everything already accepted, so the flusher writes all of it before it exits.
+				queue.put(STOP);
+				flusher.join(Duration.ofSeconds(30));
+				if (flusher.isAlive()) {
+					log.warn("Ingest flusher still writing after 30s; {} planets left queued", queue.size());
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		running = false;
+		// Whatever is still queued has been acknowledged with 202, so write it before shutting down.
+		if (flusher == null || !flusher.isAlive()) {
+			flush();
+		}
+	}
+
+	// Stops after the web server has (it stops at SMART_LIFECYCLE_PHASE - 1024), so no request can
+	// still be accepting planets once the queue has drained.
+	@Override
+	public int getPhase() {
+		return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	private void run() {
+		List<Pending> batch = new ArrayList<>(batchSize);
+		boolean stopped = false;
+		while (!stopped) {
+			try {
+				Pending first = queue.take();
+				batch.add(first);
+				long deadline = System.nanoTime() + lingerNanos;
+				while (first != STOP && batch.size() < batchSize) {
+					if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+						continue;
+					}
+					Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+				}
+			} catch (InterruptedException ex) {
+				// Only an unexpected interrupt gets here; what was drained is still written below.
+				Thread.currentThread().interrupt();
+				stopped = true;
+			}
+			stopped |= batch.remove(STOP);
+			if (!batch.isEmpty()) {
+				write(batch);
+				batch.clear();
+			}
+		}
+	}
+
+	private int write(List<Pending> batch) {
+		try {
+			PlanetBatchReport report = service.createBatch(batch.stream().map(Pending::planet).iterator());
+			for (BatchItemResult item : report.items()) {
+				remember(IngestStatus.of(batch.get(item.index()).trackingId(), item));
+			}
+		} catch (RuntimeException ex) {
+			log.error("Writing {} queued planets failed", batch.size(), ex);
+			batch.forEach(pending -> remember(IngestStatus.failed(pending.trackingId(), pending.planet().getName())));
+		}
+		return batch.size();
+	}
+
+	private void remember(IngestStatus status) {
+		lock.lock();
+		try {
+			statuses.put(status.trackingId(), status);
+			if (statuses.size() > retention) {
+				Iterator<Map.Entry<String, IngestStatus>> eldest = statuses.entrySet().iterator();
+				eldest.next();
+				eldest.remove();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void forget(String trackingId) {
+		lock.lock();
+		try {
+			statuses.remove(trackingId);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private record Pending(String trackingId, Planet planet) {
+	}
+
+}
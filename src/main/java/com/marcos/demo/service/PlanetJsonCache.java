@@ -0,0 +1,78 @@
+package com.marcos.demo.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.marcos.demo.domain.PlanetView;
+import com.marcos.demo.event.PlanetsCreatedEvent;
+import com.marcos.demo.event.PlanetsDeletedEvent;
+import com.marcos.demo.event.PlanetsDeletedMatchingEvent;
+
+/*
+ * Each planet's JSON, encoded once and kept as bytes (planet.json-cache.enabled). An entry is only
+ * served for the version it was encoded from, so a planet that changed is re-encoded even if an
+ * invalidation was missed; create/delete events drop entries eagerly. Once max-size entries are
+ * held, further planets are encoded on every request instead of growing the map.
+ */
+@Component
+public class PlanetJsonCache {
+
+	private final boolean enabled;
+	private final int maxSize;
+	private final ObjectWriter writer;
+	private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+	@Autowired
+	public PlanetJsonCache(@Value("${planet.json-cache.enabled:false}") boolean enabled,
+			@Value("${planet.json-cache.max-size:100000}") int maxSize, ObjectMapper mapper) {
+		this.enabled = enabled;
+		this.maxSize = maxSize;
+		this.writer = mapper.writerFor(PlanetView.class);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public byte[] json(PlanetView planet) throws JsonProcessingException {
+		if (planet.id() == null) {
+			return writer.writeValueAsBytes(planet);
+		}
+		Entry entry = entries.get(planet.id());
+		if (entry != null && entry.version() == planet.version()) {
+			return entry.json();
+		}
+		byte[] json = writer.writeValueAsBytes(planet);
+		if (entry != null || entries.size() < maxSize) {
+			entries.put(planet.id(), new Entry(planet.version(), json));
+		}
+		return json;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCreated(PlanetsCreatedEvent event) {
+		event.planets().forEach(planet -> entries.remove(planet.id()));
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onDeleted(PlanetsDeletedEvent event) {
+		event.ids().forEach(entries::remove);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onDeletedMatching(PlanetsDeletedMatchingEvent event) {
+		entries.clear();
+	}
+
+	private record Entry(long version, byte[] json) {
+	}
+
+}
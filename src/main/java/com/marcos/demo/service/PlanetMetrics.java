@@ -0,0 +1,94 @@
+package com.marcos.demo.service;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * planet.service (timer) and planet.service.results (summary), both with percentile histograms.
+ * Meters are resolved once per operation/outcome and kept here, so a recording costs a map lookup
+ * and the histogram update; nothing is allocated per call beyond the Timer.Sample.
+ */
+@Component
+public class PlanetMetrics {
+
+	public static final String SUCCESS = "success";
+	public static final String HIT = "hit";
+	public static final String FOUND = "found";
+	public static final String NOT_FOUND = "not-found";
+	public static final String CONFLICT = "conflict";
+	public static final String ERROR = "error";
+
+	private final MeterRegistry registry;
+	private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, DistributionSummary> results = new ConcurrentHashMap<>();
+
+	public PlanetMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	public Timer.Sample start() {
+		return Timer.start(registry);
+	}
+
+	public void stop(Timer.Sample sample, String operation, String outcome) {
+		sample.stop(timer(operation, outcome));
+	}
+
+	public <T> T record(String operation, Supplier<T> call, Function<? super T, String> outcome) {
+		Timer.Sample sample = start();
+		T result;
+		try {
+			result = call.get();
+		} catch (RuntimeException ex) {
+			stop(sample, operation, outcome(ex));
+			throw ex;
+		}
+		stop(sample, operation, outcome.apply(result));
+		return result;
+	}
+
+	public void recordResults(String operation, int count) {
+		results.computeIfAbsent(operation, op -> DistributionSummary.builder("planet.service.results")
+				.description("Planets returned per PlanetService call")
+				.baseUnit("planets")
+				.tag("operation", op)
+				.publishPercentileHistogram()
+				.minimumExpectedValue(1.0)
+				.maximumExpectedValue((double) PlanetService.MAX_PAGE_SIZE * 100)
+				.register(registry))
+				.record(count);
+	}
+
+	public static String outcome(RuntimeException ex) {
+		if (ex instanceof DataIntegrityViolationException) {
+			return CONFLICT;
+		}
+		if (ex instanceof EmptyResultDataAccessException) {
+			return NOT_FOUND;
+		}
+		return ERROR;
+	}
+
+	private Timer timer(String operation, String outcome) {
+		return timers.computeIfAbsent(operation + '|' + outcome, key -> Timer.builder("planet.service")
+				.description("PlanetService calls")
+				.tag("operation", operation)
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.minimumExpectedValue(Duration.ofMillis(1))
+				.maximumExpectedValue(Duration.ofSeconds(30))
+				.register(registry));
+	}
+
+}
@@ -0,0 +1,159 @@
+package com.marcos.demo.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.marcos.demo.domain.PlanetFilter;
+import com.marcos.demo.domain.PlanetView;
+import com.marcos.demo.domain.TokenMatch;
+
+/*
+ * Listing results keyed by the normalized filter plus cursor and limit. Each entry records the
+ * PlanetCatalogGeneration it was read under and is only served while that is still the current
+ * one: callers read the generation before querying, so a result that raced with a write is
+ * stored under the old generation and never served. The first call that sees a newer generation
+ * drops every entry at once. Results longer than max-rows are not kept.
+ * Generations only advance on writes this instance commits, so writes from other instances or plain
+ * SQL go unseen: entries also expire ttl after they were stored, which bounds how stale they get.
+ */
+@Component
+public class PlanetResultCache {
+
+	// Rough heap cost of one cached PlanetView without its characters (record, boxed id, three
+	// Strings with their arrays) and of one entry with its key and list.
+	private static final long VIEW_OVERHEAD = 176;
+	private static final long ENTRY_OVERHEAD = 256;
+
+	private final int maxSize;
+	private final int maxRows;
+	private final long ttlNanos;
+	private final LongSupplier clock;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long generation;
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long bytes;
+
+	@Autowired
+	public PlanetResultCache(@Value("${planet.result-cache.max-size:256}") int maxSize,
+			@Value("${planet.result-cache.max-rows:10000}") int maxRows,
+			@Value("${planet.result-cache.ttl:30s}") Duration ttl) {
+		this(maxSize, maxRows, ttl, System::nanoTime);
+	}
+
+	public PlanetResultCache(int maxSize, int maxRows, Duration ttl, LongSupplier clock) {
+		this.maxSize = maxSize;
+		this.maxRows = maxRows;
+		this.ttlNanos = ttl.toNanos();
+		this.clock = clock;
+	}
+
+	public Optional<List<PlanetView>> get(PlanetFilter filter, long after, int limit, long readGeneration) {
+		lock.lock();
+		try {
+			advance(readGeneration);
+			Key key = Key.of(filter, after, limit);
+			Entry entry = readGeneration == generation ? entries.get(key) : null;
+			if (entry != null && clock.getAsLong() - entry.expiresAt() >= 0) {
+				entries.remove(key);
+				bytes -= entry.bytes();
+				evictions++;
+				entry = null;
+			}
+			if (entry == null) {
+				misses++;
+				return Optional.empty();
+			}
+			hits++;
+			return Optional.of(entry.rows());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Returns what the caller should hand out: the stored immutable snapshot, or the rows themselves
+	// when they are too many to keep.
+	public List<PlanetView> put(PlanetFilter filter, long after, int limit, long readGeneration, List<PlanetView> rows) {
+		if (maxSize < 1 || rows.size() > maxRows) {
+			return rows;
+		}
+		List<PlanetView> snapshot = List.copyOf(rows);
+		long size = ENTRY_OVERHEAD + snapshot.stream().mapToLong(PlanetResultCache::estimate).sum();
+		lock.lock();
+		try {
+			advance(readGeneration);
+			if (readGeneration != generation) {
+				return snapshot;
+			}
+			Entry previous = entries.put(Key.of(filter, after, limit), new Entry(snapshot, size, clock.getAsLong() + ttlNanos));
+			bytes += size - (previous == null ? 0 : previous.bytes());
+			Iterator<Entry> eldest = entries.values().iterator();
+			while (entries.size() > maxSize) {
+				bytes -= eldest.next().bytes();
+				eldest.remove();
+				evictions++;
+			}
+			return snapshot;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public ResultCacheStats stats() {
+		lock.lock();
+		try {
+			long lookups = hits + misses;
+			return new ResultCacheStats(hits, misses, lookups == 0 ? 0.0 : (double) hits / lookups, evictions,
+					entries.size(), maxSize, bytes);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void advance(long readGeneration) {
+		if (readGeneration > generation) {
+			evictions += entries.size();
+			entries.clear();
+			bytes = 0;
+			generation = readGeneration;
+		}
+	}
+
+	private static long estimate(PlanetView planet) {
+		return VIEW_OVERHEAD + length(planet.name()) + length(planet.climate()) + length(planet.terain());
+	}
+
+	private static int length(String value) {
+		return value == null ? 0 : value.length();
+	}
+
+	private record Key(String climate, String terrain, Set<String> climateTokens, Set<String> terrainTokens,
+			TokenMatch match, long after, int limit) {
+
+		// Built from the folded keys, so " Arid" and "arid" share an entry like they share a query.
+		static Key of(PlanetFilter filter, long after, int limit) {
+			return new Key(filter.climateKey(), filter.terrainKey(), filter.climateTokens(), filter.terrainTokens(),
+					filter.match(), after, limit);
+		}
+
+	}
+
+	private record Entry(List<PlanetView> rows, long bytes, long expiresAt) {
+	}
+
+}
@@ -1,46 +1,354 @@
 package com.marcos.demo.service;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Example;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.marcos.demo.catalog.PlanetColumnStore;
+import com.marcos.demo.catalog.PlanetFacetIndex;
+import com.marcos.demo.catalog.PlanetNameIndex;
+import com.marcos.demo.catalog.PlanetTrigramIndex;
+import com.marcos.demo.domain.BatchItemResult;
 import com.marcos.demo.domain.Planet;
-import com.marcos.demo.domain.QueryBuilder;
+import com.marcos.demo.domain.PlanetBatchReport;
+import com.marcos.demo.domain.PlanetFacets;
+import com.marcos.demo.domain.PlanetFilter;
+import com.marcos.demo.domain.PlanetNameMatch;
+import com.marcos.demo.domain.PlanetPage;
+import com.marcos.demo.domain.PlanetSuggestion;
+import com.marcos.demo.domain.PlanetView;
+import com.marcos.demo.event.PlanetsCreatedEvent;
+import com.marcos.demo.event.PlanetsDeletedEvent;
+import com.marcos.demo.event.PlanetsDeletedMatchingEvent;
 import com.marcos.demo.repository.PlanetRepository;
 
+import io.micrometer.core.instrument.Timer;
+
 @Service
 public class PlanetService {
 	
+	public static final int MAX_PAGE_SIZE = 1000;
+	
+	public static final int MAX_SUGGESTIONS = 100;
+	
+	private static final int STREAM_CHUNK = 1000;
+	
+	// Keeps the IN list of a bulk delete well below driver and optimizer limits.
+	private static final int DELETE_CHUNK = 1000;
+	
 	@Autowired
 	private PlanetRepository repository;
 	
-	public PlanetService(PlanetRepository repository) {
+	@Autowired
+	private PlanetCache cache;
+	
+	@Autowired
+	private PlanetBatchWriter batchWriter;
+	
+	@Autowired
+	private PlanetColumnStore columnStore;
+	
+	@Autowired
+	private PlanetFacetIndex facetIndex;
+	
+	@Autowired
+	private PlanetNameIndex nameIndex;
+	
+	@Autowired
+	private PlanetTrigramIndex trigramIndex;
+	
+	@Autowired
+	private ApplicationEventPublisher events;
+	
+	@Autowired
+	private PlanetCatalogGeneration catalogGeneration;
+	
+	@Autowired
+	private PlanetMetrics metrics;
+	
+	@Autowired
+	private PlanetResultCache resultCache;
+	
+	// Reads select PlanetView projections; read-only also switches Hibernate's flush mode to manual.
+	private final TransactionTemplate readOnlyTransaction;
+	
+	private final TransactionTemplate writeTransaction;
+	
+	// One read view for a whole export: every row comes from the same committed state.
+	private final TransactionTemplate snapshotTransaction;
+	
+	public PlanetService(PlanetRepository repository, PlanetCache cache, PlanetBatchWriter batchWriter,
+			PlanetColumnStore columnStore, PlanetFacetIndex facetIndex, PlanetNameIndex nameIndex,
+			PlanetTrigramIndex trigramIndex, ApplicationEventPublisher events, PlanetCatalogGeneration catalogGeneration, PlanetMetrics metrics,
+			PlanetResultCache resultCache, PlatformTransactionManager transactionManager) {
 		this.repository = repository;
+		this.cache = cache;
+		this.batchWriter = batchWriter;
+		this.columnStore = columnStore;
+		this.facetIndex = facetIndex;
+		this.nameIndex = nameIndex;
+		this.trigramIndex = trigramIndex;
+		this.events = events;
+		this.catalogGeneration = catalogGeneration;
+		this.metrics = metrics;
+		this.resultCache = resultCache;
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+		this.writeTransaction = new TransactionTemplate(transactionManager);
+		this.snapshotTransaction = new TransactionTemplate(transactionManager);
+		this.snapshotTransaction.setReadOnly(true);
+		this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
 	}
 	
 	
 	public Planet create(Planet planet) {
-		return repository.save(planet);
+		return metrics.record("create", () -> {
+			Planet created = writeTransaction.execute(status -> {
+				Planet saved = repository.save(planet);
+				catalogGeneration.bump();
+				return saved;
+			});
+			cache.evict(created);
+			events.publishEvent(new PlanetsCreatedEvent(List.of(PlanetView.of(created))));
+			return created;
+		}, created -> PlanetMetrics.SUCCESS);
+	}
+	
+	public PlanetBatchReport createBatch(Iterator<Planet> planets) {
+		PlanetBatchReport report = batchWriter.write(planets);
+		for (BatchItemResult item : report.items()) {
+			if (item.status() == BatchItemResult.Status.CREATED) {
+				cache.evict(item.id());
+			}
+		}
+		return report;
 	}
 	
-	public Optional<Planet> getId(Long id){
-		return repository.findById(id);
+	public Optional<PlanetView> getId(Long id){
+		return lookup("getId", () -> cache.getById(id), () -> repository.findViewById(id));
 	}
 	
-	public Optional<Planet> getByName(String name){
-		return repository.findByName(name);
+	public Optional<PlanetView> getByName(String name){
+		return lookup("getByName", () -> cache.getByName(name), () -> repository.findViewByName(name));
 	}
 	
-	public List<Planet> list(String climate, String terrain){
-		Example<Planet> query = QueryBuilder.makeQuery(new Planet(climate, terrain));
-		return repository.findAll(query);
+	private Optional<PlanetView> lookup(String operation, Supplier<Optional<PlanetView>> fromCache,
+			Supplier<Optional<PlanetView>> fromDatabase) {
+		Timer.Sample sample = metrics.start();
+		try {
+			Optional<PlanetView> cached = fromCache.get();
+			if (cached.isPresent()) {
+				metrics.stop(sample, operation, PlanetMetrics.HIT);
+				return cached;
+			}
+			long generation = cache.generation();
+			Optional<PlanetView> planet = readOnlyTransaction.execute(status -> fromDatabase.get());
+			planet.ifPresent(p -> cache.put(p, generation));
+			metrics.stop(sample, operation, planet.isPresent() ? PlanetMetrics.FOUND : PlanetMetrics.NOT_FOUND);
+			return planet;
+		} catch (RuntimeException ex) {
+			metrics.stop(sample, operation, PlanetMetrics.outcome(ex));
+			throw ex;
+		}
+	}
+	
+	public List<PlanetView> list(String climate, String terrain){
+		PlanetFilter filter = new PlanetFilter(climate, terrain);
+		List<PlanetView> planets = metrics.record("list", () -> rows(filter, 0L, Integer.MAX_VALUE),
+				result -> PlanetMetrics.SUCCESS);
+		metrics.recordResults("list", planets.size());
+		return planets;
+	}
+	
+	public PlanetPage listPage(PlanetFilter filter, String after, int limit) {
+		PlanetPage page = metrics.record("listPage", () -> page(filter, after, limit), result -> PlanetMetrics.SUCCESS);
+		metrics.recordResults("listPage", page.content().size());
+		return page;
+	}
+	
+	private PlanetPage page(PlanetFilter filter, String after, int limit) {
+		long afterId = after == null ? 0L : PlanetCursor.decode(after);
+		int size = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+		// One extra row tells us whether there is a next page without a count query.
+		List<PlanetView> planets = rows(filter, afterId, size + 1);
+		if (planets.size() <= size) {
+			return new PlanetPage(planets, null);
+		}
+		List<PlanetView> content = planets.subList(0, size);
+		return new PlanetPage(content, PlanetCursor.encode(content.get(size - 1).id()));
+	}
+	
+	// The generation is read before the rows, so rows that raced with a write are never served again.
+	private List<PlanetView> rows(PlanetFilter filter, long afterId, int limit) {
+		long generation = catalogGeneration.current();
+		return resultCache.get(filter, afterId, limit, generation).orElseGet(() -> resultCache.put(filter, afterId,
+				limit, generation, columnStore.isReady() ? columnStore.find(filter, afterId, limit)
+						: readOnlyTransaction.execute(status -> repository.findPage(filter, afterId, limit))));
+	}
+	
+	public List<PlanetSuggestion> suggest(String prefix, int limit) {
+		if (prefix == null || prefix.isBlank()) {
+			return List.of();
+		}
+		int size = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+		List<PlanetSuggestion> suggestions = metrics.record("suggest", () -> nameIndex.isReady()
+				? nameIndex.suggest(prefix, size)
+				: readOnlyTransaction.execute(status -> repository
+						.findByNameStartingWithIgnoreCaseOrderByNameAsc(prefix.stripLeading(), Limit.of(size))),
+				result -> PlanetMetrics.SUCCESS);
+		metrics.recordResults("suggest", suggestions.size());
+		return suggestions;
+	}
+	
+	// There is no fuzzy equivalent in SQL: until the trigram index has loaded only an exact name matches.
+	public List<PlanetNameMatch> search(String name, int limit) {
+		if (name == null || name.isBlank()) {
+			return List.of();
+		}
+		int size = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+		List<PlanetNameMatch> matches = metrics.record("search", () -> trigramIndex.isReady()
+				? trigramIndex.search(name, size)
+				: readOnlyTransaction.execute(status -> repository.findViewByName(name.strip()))
+						.map(planet -> List.of(new PlanetNameMatch(planet.id(), planet.name(), 1.0)))
+						.orElse(List.of()),
+				result -> PlanetMetrics.SUCCESS);
+		metrics.recordResults("search", matches.size());
+		return matches;
+	}
+	
+	// Until the facet index has loaded, the counts come from a GROUP BY on the lookup key columns.
+	public PlanetFacets facets(PlanetFilter filter) {
+		return metrics.record("facets", () -> facetIndex.isReady() ? facetIndex.facets(filter)
+				: readOnlyTransaction.execute(status -> repository.countFacets(filter)),
+				facets -> PlanetMetrics.SUCCESS);
+	}
+	
+	public void stream(PlanetFilter filter, Consumer<PlanetView> sink) {
+		if (columnStore.isReady()) {
+			// Chunked keyset reads so the store is never locked while the sink does I/O.
+			long after = 0L;
+			List<PlanetView> chunk;
+			do {
+				chunk = columnStore.find(filter, after, STREAM_CHUNK);
+				chunk.forEach(sink);
+				after = chunk.isEmpty() ? after : chunk.get(chunk.size() - 1).id();
+			} while (chunk.size() == STREAM_CHUNK);
+			return;
+		}
+		readOnlyTransaction.executeWithoutResult(status -> {
+			// Projections are never attached, so memory stays flat for the whole cursor.
+			try (Stream<PlanetView> planets = repository.streamAll(filter)) {
+				planets.forEach(sink);
+			}
+		});
 	}
 
+	// Always the database, never the column store, whose chunked reads could straddle a write.
+	public void exportSnapshot(Consumer<PlanetView> sink) {
+		snapshotTransaction.executeWithoutResult(status -> {
+			try (Stream<PlanetView> planets = repository.streamAll(PlanetFilter.ALL)) {
+				planets.forEach(sink);
+			}
+		});
+	}
 	
 	public void delete(Long id) {
-		repository.deleteById(id);
+		metrics.record("delete", () -> {
+			int deleted;
+			try {
+				deleted = writeTransaction.execute(status -> {
+					int rows = repository.deleteByIds(List.of(id));
+					if (rows > 0) {
+						catalogGeneration.bump();
+					}
+					return rows;
+				});
+			} finally {
+				cache.evict(id);
+			}
+			if (deleted == 0) {
+				throw new EmptyResultDataAccessException("No planet with id " + id, 1);
+			}
+			events.publishEvent(new PlanetsDeletedEvent(List.of(id)));
+			return id;
+		}, deleted -> PlanetMetrics.SUCCESS);
+	}
+	
+	// Ids that do not exist are skipped; the result is the number of rows actually deleted.
+	public int deleteAll(Collection<Long> ids) {
+		List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+		int deleted = metrics.record("deleteAll", () -> bulkDelete(distinct), count -> PlanetMetrics.SUCCESS);
+		metrics.recordResults("deleteAll", deleted);
+		return deleted;
+	}
+	
+	// A single DELETE with the filter as its predicate, so the matching ids are never loaded. As the
+	// rows are not named, the cached planets are all dropped and the indexes reload.
+	public int deleteMatching(PlanetFilter filter) {
+		int deleted = metrics.record("deleteMatching", () -> {
+			try {
+				return writeTransaction.execute(status -> {
+					int rows = repository.deleteMatching(filter);
+					if (rows > 0) {
+						catalogGeneration.bump();
+						events.publishEvent(new PlanetsDeletedMatchingEvent(filter));
+					}
+					return rows;
+				});
+			} finally {
+				cache.clear();
+			}
+		}, count -> PlanetMetrics.SUCCESS);
+		metrics.recordResults("deleteMatching", deleted);
+		return deleted;
+	}
+	
+	// Listeners only see the event once the transaction has committed.
+	private int bulkDelete(List<Long> ids) {
+		try {
+			return writeTransaction.execute(status -> {
+				int deleted = 0;
+				for (int from = 0; from < ids.size(); from += DELETE_CHUNK) {
+					deleted += repository.deleteByIds(ids.subList(from, Math.min(from + DELETE_CHUNK, ids.size())));
+				}
+				if (deleted > 0) {
+					catalogGeneration.bump();
+				}
+				if (!ids.isEmpty()) {
+					events.publishEvent(new PlanetsDeletedEvent(ids));
+				}
+				return deleted;
+			});
+		} finally {
+			ids.forEach(cache::evict);
+		}
+	}
+	
+	// Read before the rows are, so a write that races with a listing can only make the ETag older.
+	// A query of its own, but a primary key lookup, and a 304 saves the listing query altogether.
+	public String catalogETag() {
+		return catalogGeneration.etag();
+	}
+	
+	public CacheStats cacheStats() {
+		return cache.stats();
+	}
+	
+	public ResultCacheStats resultCacheStats() {
+		return resultCache.stats();
 	}
 }
@@ -0,0 +1,6 @@
+package com.marcos.demo.service;
+
+public record ResultCacheStats(long hits, long misses, double hitRatio, long evictions, int size, int maxSize,
+		long estimatedBytes) {
+
+}
@@ -0,0 +1,64 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+// Splits the climate/terrain of rows that existed before V3 into the token tables.
+// The tokenizing rules are copied here on purpose: a migration must not change when Planet does.
+public class V4__Backfill_planet_tokens extends BaseJavaMigration {
+
+	private static final int BATCH_SIZE = 1000;
+
+	@Override
+	public void migrate(Context context) throws Exception {
+		Connection connection = context.getConnection();
+		try (Statement select = connection.createStatement();
+				ResultSet rows = select.executeQuery("select id, climate, terain from planets");
+				PreparedStatement climates = connection
+						.prepareStatement("insert into planet_climate_tokens (planet_id, token) values (?, ?)");
+				PreparedStatement terrains = connection
+						.prepareStatement("insert into planet_terrain_tokens (planet_id, token) values (?, ?)")) {
+			int pending = 0;
+			while (rows.next()) {
+				long id = rows.getLong(1);
+				pending += addTokens(climates, id, rows.getString(2));
+				pending += addTokens(terrains, id, rows.getString(3));
+				if (pending >= BATCH_SIZE) {
+					climates.executeBatch();
+					terrains.executeBatch();
+					pending = 0;
+				}
+			}
+			climates.executeBatch();
+			terrains.executeBatch();
+		}
+	}
+
+	private static int addTokens(PreparedStatement insert, long id, String value) throws SQLException {
+		if (value == null) {
+			return 0;
+		}
+		Set<String> tokens = new LinkedHashSet<>();
+		for (String token : value.split(",")) {
+			if (!token.isBlank()) {
+				tokens.add(token.trim().toLowerCase(Locale.ROOT));
+			}
+		}
+		for (String token : tokens) {
+			insert.setLong(1, id);
+			insert.setString(2, token);
+			insert.addBatch();
+		}
+		return tokens.size();
+	}
+
+}
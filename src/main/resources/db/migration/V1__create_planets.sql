@@ -0,0 +1,8 @@
+CREATE TABLE planets (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    climate VARCHAR(255) NOT NULL,
+    terain VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_planets_name UNIQUE (name)
+);
@@ -0,0 +1,8 @@
+-- Case-folded copies of climate/terrain kept by the database itself, so filters can compare
+-- against an indexed column instead of wrapping the original one in lower().
+ALTER TABLE planets ADD COLUMN climate_key VARCHAR(255) GENERATED ALWAYS AS (LOWER(TRIM(climate)));
+ALTER TABLE planets ADD COLUMN terrain_key VARCHAR(255) GENERATED ALWAYS AS (LOWER(TRIM(terain)));
+
+CREATE INDEX idx_planets_climate_key ON planets (climate_key);
+CREATE INDEX idx_planets_terrain_key ON planets (terrain_key);
+CREATE INDEX idx_planets_climate_terrain_key ON planets (climate_key, terrain_key);
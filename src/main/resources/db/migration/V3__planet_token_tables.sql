@@ -0,0 +1,17 @@
+-- Climate and terrain hold comma-separated lists ("grasslands, mountains"); each token gets its own
+-- row so token searches are index lookups instead of LIKE '%...%' scans.
+CREATE TABLE planet_climate_tokens (
+    planet_id BIGINT NOT NULL,
+    token VARCHAR(255) NOT NULL,
+    PRIMARY KEY (planet_id, token),
+    CONSTRAINT fk_planet_climate_tokens_planet FOREIGN KEY (planet_id) REFERENCES planets (id) ON DELETE CASCADE
+);
+CREATE INDEX idx_planet_climate_tokens_token ON planet_climate_tokens (token, planet_id);
+
+CREATE TABLE planet_terrain_tokens (
+    planet_id BIGINT NOT NULL,
+    token VARCHAR(255) NOT NULL,
+    PRIMARY KEY (planet_id, token),
+    CONSTRAINT fk_planet_terrain_tokens_planet FOREIGN KEY (planet_id) REFERENCES planets (id) ON DELETE CASCADE
+);
+CREATE INDEX idx_planet_terrain_tokens_token ON planet_terrain_tokens (token, planet_id);
@@ -0,0 +1,2 @@
+-- Optimistic lock version; also the source of the strong ETag served for a single planet.
+ALTER TABLE planets ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,7 @@
+-- One row whose generation every write transaction bumps; the list and facet ETags are read from it,
+-- so they hold across instances (and across restarts) instead of per JVM.
+CREATE TABLE planet_catalog (
+    id INT NOT NULL PRIMARY KEY,
+    generation BIGINT NOT NULL
+);
+INSERT INTO planet_catalog (id, generation) VALUES (1, 0);
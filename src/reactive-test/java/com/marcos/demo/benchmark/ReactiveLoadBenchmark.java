@@ -0,0 +1,160 @@
+package com.marcos.demo.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.marcos.demo.DemoApplication;
+import com.marcos.demo.common.BenchmarkReport;
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.service.PlanetService;
+
+/*
+ * mvn test -Preactive,benchmark -Dtest=ReactiveLoadBenchmark -Dload.clients=2000 -Dload.slow-clients=1000
+ * Fan-in: the same GET /planets load as VirtualThreadLoadBenchmark, while slow clients keep fetching
+ * large pages and reading them a little at a time. Runs the servlet/JPA stack on platform threads, on
+ * virtual threads and then the "reactive" WebFlux/R2DBC stack, and writes throughput and p99 of the
+ * fast clients to target/benchmarks/reactive.txt. The result cache is off so every request reaches
+ * the database. For MySQL pass -Dload.datasource.url and -Dload.r2dbc.url naming the same schema
+ * (plus -Dload.datasource.username/password).
+ */
+@Tag("benchmark")
+public class ReactiveLoadBenchmark {
+
+	private static final int CLIENTS = Integer.getInteger("load.clients", 2000);
+	private static final int SLOW_CLIENTS = Integer.getInteger("load.slow-clients", 1000);
+	private static final int SECONDS = Integer.getInteger("load.seconds", 20);
+	private static final int PLANETS = 5_000;
+
+	@Test
+	public void compareServletAndReactive() throws Exception {
+		List<String> report = new ArrayList<>();
+		report.add(String.format("%-10s %8s %8s %12s %10s %10s%n", "stack", "clients", "slow", "requests/s", "p50 ms",
+				"p99 ms"));
+		report.add(run("platform"));
+		report.add(run("virtual"));
+		report.add(run("reactive"));
+
+		BenchmarkReport.write(Path.of("target", "benchmarks", "reactive.txt"), report);
+	}
+
+	private String run(String mode) throws Exception {
+		try (ConfigurableApplicationContext context = start(mode)) {
+			// The JPA side is up in every mode, so seeding is the same for all three.
+			PlanetService service = context.getBean(PlanetService.class);
+			service.createBatch(IntStream.range(0, PLANETS)
+					.mapToObj(i -> new Planet(mode + "-" + i, i % 2 == 0 ? "arid" : "temperate", "desert"))
+					.iterator());
+			int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+			return String.format("%-10s %8d %8d %s", mode, CLIENTS, SLOW_CLIENTS, load(port));
+		}
+	}
+
+	private static ConfigurableApplicationContext start(String mode) {
+		String url = System.getProperty("load.datasource.url", "jdbc:h2:mem:fan-in-" + mode + ";DB_CLOSE_DELAY=-1");
+		String r2dbcUrl = System.getProperty("load.r2dbc.url",
+				"r2dbc:h2:mem:///fan-in-" + mode + "?options=DB_CLOSE_DELAY=-1");
+		String username = System.getProperty("load.datasource.username", "sa");
+		String password = System.getProperty("load.datasource.password", "");
+		// Arguments rather than default properties, so they win over application-reactive.properties.
+		return new SpringApplicationBuilder(DemoApplication.class)
+				.profiles(mode.equals("platform") ? "default" : mode)
+				.run("--server.port=0",
+						"--spring.datasource.driverClassName=",
+						"--spring.datasource.url=" + url,
+						"--spring.datasource.username=" + username,
+						"--spring.datasource.password=" + password,
+						"--spring.r2dbc.url=" + r2dbcUrl,
+						"--spring.r2dbc.username=" + username,
+						"--spring.r2dbc.password=" + password,
+						"--spring.jpa.hibernate.ddl-auto=none",
+						"--planet.cache.max-size=1",
+						"--planet.result-cache.max-size=0");
+	}
+
+	private static String load(int port) throws IOException, InterruptedException {
+		HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+		ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+		AtomicLong failures = new AtomicLong();
+		long deadline = System.nanoTime() + Duration.ofSeconds(SECONDS).toNanos();
+
+		try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < SLOW_CLIENTS; c++) {
+				clients.submit(() -> {
+					while (System.nanoTime() < deadline) {
+						slowRead(client, port);
+					}
+					return null;
+				});
+			}
+			for (int c = 0; c < CLIENTS; c++) {
+				int offset = c;
+				clients.submit(() -> {
+					for (int i = offset; System.nanoTime() < deadline; i += CLIENTS) {
+						String climate = i % 2 == 0 ? "arid" : "temperate";
+						HttpRequest request = HttpRequest
+								.newBuilder(URI.create("http://localhost:" + port + "/planets?limit=50&climate=" + climate))
+								.build();
+						long start = System.nanoTime();
+						try {
+							HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+							if (response.statusCode() == 200) {
+								latencies.add(System.nanoTime() - start);
+							} else {
+								failures.incrementAndGet();
+							}
+						} catch (IOException ex) {
+							failures.incrementAndGet();
+						}
+					}
+					return null;
+				});
+			}
+		}
+
+		long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+		assertThat(sorted).isNotEmpty();
+		return String.format("%12.0f %10.1f %10.1f%s%n", sorted.length / (double) SECONDS,
+				percentile(sorted, 0.50), percentile(sorted, 0.99),
+				failures.get() == 0 ? "" : "  (" + failures.get() + " failed)");
+	}
+
+	// A full page read 1 KB every 10 ms: the server has to hold the response until the client drains it.
+	private static void slowRead(HttpClient client, int port) throws InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/planets?limit=1000"))
+				.build();
+		try (InputStream body = client.send(request, HttpResponse.BodyHandlers.ofInputStream()).body()) {
+			byte[] buffer = new byte[1024];
+			while (body.read(buffer) >= 0) {
+				Thread.sleep(10);
+			}
+		} catch (IOException ex) {
+			// Slow clients only create pressure; their failures are not what is being measured.
+		}
+	}
+
+	private static double percentile(long[] sorted, double p) {
+		return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+	}
+
+}
@@ -0,0 +1,182 @@
+package com.marcos.demo.web;
+
+import static com.marcos.demo.common.PlanetConstants.PLANET;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.marcos.demo.controller.PlanetController;
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetBatchReport;
+import com.marcos.demo.domain.PlanetDeleteReport;
+import com.marcos.demo.domain.PlanetView;
+
+// mvn test -Preactive: the whole app on Netty, against the in-memory H2 of application-reactive.properties.
+@ActiveProfiles("reactive")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+public class ReactivePlanetControllerTest {
+
+	@Autowired
+	private WebTestClient client;
+
+	@Autowired
+	private DatabaseClient database;
+
+	@AfterEach
+	public void removePlanets() {
+		database.sql("delete from planets").then().block();
+	}
+
+	@Test
+	public void createPlanet_ThenGet_ReturnsPlanetWithETag() {
+		PlanetView created = client.post().uri("/planets").bodyValue(PLANET)
+				.exchange()
+				.expectStatus().isCreated()
+				.expectBody(PlanetView.class).returnResult().getResponseBody();
+
+		assertThat(created.id()).isNotNull();
+		assertThat(created.name()).isEqualTo(PLANET.getName());
+		client.get().uri("/planets/{id}", created.id())
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + created.id() + "-0\"")
+				.expectBody(PlanetView.class).isEqualTo(created);
+		client.get().uri("/planets/name/{name}", PLANET.getName())
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(PlanetView.class).isEqualTo(created);
+	}
+
+	@Test
+	public void createPlanet_WithInvalidData_ReturnsUnprocessableEntity() {
+		client.post().uri("/planets").bodyValue(new Planet("", "", ""))
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+	}
+
+	@Test
+	public void createPlanet_WithExistingName_ReturnsConflict() {
+		client.post().uri("/planets").bodyValue(PLANET).exchange().expectStatus().isCreated();
+
+		client.post().uri("/planets").bodyValue(PLANET)
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.CONFLICT);
+	}
+
+	@Test
+	public void createBatch_Ndjson_ReportsEachItem() {
+		String body = """
+				{"name":"Tatooine","climate":"arid","terain":"desert"}
+				{"name":"Tatooine","climate":"arid","terain":"desert"}
+				{"name":"","climate":"","terain":""}
+				""";
+
+		PlanetBatchReport report = client.post().uri("/planets/batch")
+				.contentType(MediaType.APPLICATION_NDJSON).bodyValue(body)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(PlanetBatchReport.class).returnResult().getResponseBody();
+
+		assertThat(report.created()).isEqualTo(1);
+		assertThat(report.conflicts()).isEqualTo(1);
+		assertThat(report.invalid()).isEqualTo(1);
+	}
+
+	@Test
+	public void listPlanets_PastOnePage_FollowsCursor() {
+		client.post().uri("/planets/batch").bodyValue(List.of(new Planet("Tatooine", "arid", "desert"),
+				new Planet("Alderaan", "temperate", "grasslands, mountains"),
+				new Planet("Yavin IV", "temperate, tropical", "jungle, rainforests")))
+				.exchange().expectStatus().isOk();
+
+		var first = client.get().uri("/planets?climateToken=temperate&limit=1")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBodyList(PlanetView.class).hasSize(1)
+				.returnResult();
+		String cursor = first.getResponseHeaders().getFirst(PlanetController.NEXT_CURSOR_HEADER);
+		assertThat(first.getResponseBody().get(0).name()).isEqualTo("Alderaan");
+		assertThat(cursor).isNotNull();
+
+		client.get().uri("/planets?climateToken=temperate&limit=1&after={cursor}", cursor)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().doesNotExist(PlanetController.NEXT_CURSOR_HEADER)
+				.expectBodyList(PlanetView.class).hasSize(1)
+				.value(planets -> assertThat(planets.get(0).name()).isEqualTo("Yavin IV"));
+	}
+
+	@Test
+	public void listPlanets_WithCurrentETag_ReturnsNotModified() {
+		client.post().uri("/planets").bodyValue(PLANET).exchange().expectStatus().isCreated();
+		String etag = client.get().uri("/planets")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody().returnResult().getResponseHeaders().getETag();
+
+		client.get().uri("/planets").header(HttpHeaders.IF_NONE_MATCH, etag)
+				.exchange()
+				.expectStatus().isNotModified()
+				.expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+	}
+
+	@Test
+	public void listPlanets_AfterWrite_ReturnsNewETag() {
+		String etag = client.get().uri("/planets")
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+				.expectBody().returnResult().getResponseHeaders().getETag();
+
+		client.post().uri("/planets").bodyValue(PLANET).exchange().expectStatus().isCreated();
+
+		client.get().uri("/planets").header(HttpHeaders.IF_NONE_MATCH, etag)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().value(HttpHeaders.ETAG, value -> assertThat(value).isNotEqualTo(etag));
+	}
+
+	@Test
+	public void listPlanets_WithInvalidCursor_ReturnsBadRequest() {
+		client.get().uri("/planets?after=!!").exchange().expectStatus().isBadRequest();
+	}
+
+	@Test
+	public void removePlanet_ThenRemoveAgain_ReturnsNotFound() {
+		PlanetView created = client.post().uri("/planets").bodyValue(PLANET)
+				.exchange()
+				.expectBody(PlanetView.class).returnResult().getResponseBody();
+
+		client.delete().uri("/planets/{id}", created.id()).exchange().expectStatus().isNoContent();
+		client.delete().uri("/planets/{id}", created.id()).exchange().expectStatus().isNotFound();
+		client.get().uri("/planets/{id}", created.id()).exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	public void removePlanets_ByTokenFilter_DeletesOnlyTheMatches() {
+		client.post().uri("/planets").bodyValue(new Planet("Tatooine", "arid", "desert")).exchange().expectStatus().isCreated();
+		client.post().uri("/planets").bodyValue(new Planet("Geonosis", "arid", "rock, desert")).exchange().expectStatus().isCreated();
+		client.post().uri("/planets").bodyValue(new Planet("Alderaan", "temperate", "grasslands, mountains"))
+				.exchange().expectStatus().isCreated();
+
+		client.delete().uri("/planets?terrainToken=desert&terrainToken=rock&match=ALL")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(PlanetDeleteReport.class).isEqualTo(new PlanetDeleteReport(1));
+		client.get().uri("/planets/name/{name}", "Geonosis").exchange().expectStatus().isNotFound();
+		client.get().uri("/planets/name/{name}", "Tatooine").exchange().expectStatus().isOk();
+	}
+
+}
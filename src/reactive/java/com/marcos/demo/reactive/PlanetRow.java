@@ -0,0 +1,16 @@
+package com.marcos.demo.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import com.marcos.demo.domain.PlanetView;
+
+// The planets table as R2DBC reads it; writes go through ReactivePlanetRepositoryCustomImpl.
+@Table("planets")
+public record PlanetRow(@Id Long id, String name, String climate, String terain, Long version) {
+
+	public PlanetView view() {
+		return new PlanetView(id, name, climate, terain, version == null ? 0L : version);
+	}
+
+}
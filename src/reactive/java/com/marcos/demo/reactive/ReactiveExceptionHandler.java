@@ -0,0 +1,51 @@
+package com.marcos.demo.reactive;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import com.marcos.demo.service.InvalidCursorException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// The statuses GeneralExceptionHandler gives the servlet routes, for the WebFlux ones.
+@RestControllerAdvice
+@Profile("reactive")
+public class ReactiveExceptionHandler {
+
+	@Autowired
+	private ObjectProvider<MeterRegistry> meterRegistry;
+
+	@ExceptionHandler(WebExchangeBindException.class)
+	public ResponseEntity<Object> handleNotValid(WebExchangeBindException exception) {
+		ProblemDetail body = exception.getBody();
+		body.setStatus(HttpStatus.UNPROCESSABLE_ENTITY);
+		return error(exception, HttpStatus.UNPROCESSABLE_ENTITY, body);
+	}
+
+	@ExceptionHandler(DataIntegrityViolationException.class)
+	public ResponseEntity<Object> handleConflict(DataIntegrityViolationException exception) {
+		return error(exception, HttpStatus.CONFLICT, exception.getMessage());
+	}
+
+	@ExceptionHandler(InvalidCursorException.class)
+	public ResponseEntity<Object> handleInvalidCursor(InvalidCursorException exception) {
+		return error(exception, HttpStatus.BAD_REQUEST, exception.getMessage());
+	}
+
+	private ResponseEntity<Object> error(Exception exception, HttpStatusCode status, Object body) {
+		meterRegistry.ifAvailable(registry -> registry.counter("planet.http.errors",
+				"exception", exception.getClass().getSimpleName(), "status", Integer.toString(status.value()))
+				.increment());
+		return ResponseEntity.status(status).body(body);
+	}
+
+}
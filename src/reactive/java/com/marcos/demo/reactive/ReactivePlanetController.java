@@ -0,0 +1,277 @@
+package com.marcos.demo.reactive;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.marcos.demo.catalog.PlanetColumnStore;
+import com.marcos.demo.catalog.PlanetFacetIndex;
+import com.marcos.demo.catalog.PlanetNameIndex;
+import com.marcos.demo.catalog.PlanetTrigramIndex;
+import com.marcos.demo.controller.PlanetController;
+import com.marcos.demo.domain.BatchItemResult;
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetBatchReport;
+import com.marcos.demo.domain.PlanetDeleteReport;
+import com.marcos.demo.domain.PlanetFacets;
+import com.marcos.demo.domain.PlanetFilter;
+import com.marcos.demo.domain.PlanetNameMatch;
+import com.marcos.demo.domain.PlanetSuggestion;
+import com.marcos.demo.domain.PlanetView;
+import com.marcos.demo.domain.TokenMatch;
+import com.marcos.demo.event.PlanetsCreatedEvent;
+import com.marcos.demo.event.PlanetsDeletedEvent;
+import com.marcos.demo.event.PlanetsDeletedMatchingEvent;
+import com.marcos.demo.service.PlanetCatalogGeneration;
+import com.marcos.demo.service.PlanetCursor;
+import com.marcos.demo.service.PlanetService;
+
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * The PlanetController routes on WebFlux. Nothing here blocks: rows come from R2DBC, or from the
+ * in-memory indexes once they have loaded, and writes publish the same change events as
+ * PlanetService so the indexes and the catalog ETag stay current.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/planets")
+public class ReactivePlanetController {
+
+	@Autowired
+	private ReactivePlanetRepository repository;
+
+	@Autowired
+	private PlanetColumnStore columnStore;
+
+	@Autowired
+	private PlanetFacetIndex facetIndex;
+
+	@Autowired
+	private PlanetNameIndex nameIndex;
+
+	@Autowired
+	private PlanetTrigramIndex trigramIndex;
+
+	@Autowired
+	private ApplicationEventPublisher events;
+
+	@Autowired
+	private Validator validator;
+
+	@PostMapping
+	public Mono<ResponseEntity<PlanetView>> create(@RequestBody @Valid Planet planet) {
+		return repository.insert(planet)
+				.doOnNext(created -> events.publishEvent(new PlanetsCreatedEvent(List.of(created))))
+				.map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created));
+	}
+
+	// One insert per planet, in arrival order: a JSON array or NDJSON is decoded element by element.
+	@PostMapping(path = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Mono<ResponseEntity<PlanetBatchReport>> createBatch(@RequestBody Flux<Planet> planets) {
+		return planets.index()
+				.concatMap(item -> insert(item.getT1().intValue(), item.getT2()))
+				.collectList()
+				.map(items -> ResponseEntity.ok(PlanetBatchReport.of(items)));
+	}
+
+	private Mono<BatchItemResult> insert(int index, Planet planet) {
+		if (!validator.validate(planet).isEmpty()) {
+			return Mono.just(BatchItemResult.invalid(index, planet.getName()));
+		}
+		return repository.insert(planet)
+				.doOnNext(created -> events.publishEvent(new PlanetsCreatedEvent(List.of(created))))
+				.map(created -> BatchItemResult.created(index, created.name(), created.id()))
+				.onErrorResume(DataIntegrityViolationException.class,
+						ex -> Mono.just(BatchItemResult.conflict(index, planet.getName())));
+	}
+
+	@GetMapping("/{id}")
+	public Mono<ResponseEntity<PlanetView>> getById(@PathVariable Long id) {
+		return found(repository.findById(id));
+	}
+
+	@GetMapping("/name/{name}")
+	public Mono<ResponseEntity<PlanetView>> getByName(@PathVariable String name) {
+		return found(repository.findByName(name));
+	}
+
+	@GetMapping("/name/suggest")
+	public Mono<ResponseEntity<List<PlanetSuggestion>>> suggest(@RequestParam String prefix,
+			@RequestParam(defaultValue = "10") int limit) {
+		if (prefix.isBlank()) {
+			return Mono.just(ResponseEntity.ok(List.of()));
+		}
+		int size = Math.min(Math.max(limit, 1), PlanetService.MAX_SUGGESTIONS);
+		Mono<List<PlanetSuggestion>> suggestions = nameIndex.isReady()
+				? Mono.fromSupplier(() -> nameIndex.suggest(prefix, size))
+				: repository.findByNameStartingWithIgnoreCaseOrderByNameAsc(prefix.stripLeading(), Limit.of(size))
+						.map(planet -> new PlanetSuggestion(planet.id(), planet.name()))
+						.collectList();
+		return suggestions.map(ResponseEntity::ok);
+	}
+
+	// Fuzzy only once the trigram index has loaded; until then an exact name is the only match.
+	@GetMapping("/name/search")
+	public Mono<ResponseEntity<List<PlanetNameMatch>>> search(@RequestParam("q") String name,
+			@RequestParam(defaultValue = "10") int limit) {
+		if (name.isBlank()) {
+			return Mono.just(ResponseEntity.ok(List.of()));
+		}
+		int size = Math.min(Math.max(limit, 1), PlanetService.MAX_SUGGESTIONS);
+		Mono<List<PlanetNameMatch>> matches = trigramIndex.isReady()
+				? Mono.fromSupplier(() -> trigramIndex.search(name, size))
+				: repository.findByName(name.strip())
+						.map(planet -> List.of(new PlanetNameMatch(planet.id(), planet.name(), 1.0)))
+						.defaultIfEmpty(List.of());
+		return matches.map(ResponseEntity::ok);
+	}
+
+	@GetMapping
+	public Mono<ResponseEntity<List<PlanetView>>> getAll(@RequestParam(required = false) String climate,
+			@RequestParam(required = false) String terrain,
+			@RequestParam(required = false) List<String> climateToken,
+			@RequestParam(required = false) List<String> terrainToken,
+			@RequestParam(defaultValue = "ANY") TokenMatch match,
+			@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "100") int limit,
+			ServerWebExchange exchange) {
+		PlanetFilter filter = filter(climate, terrain, climateToken, terrainToken, match);
+		long afterId = after == null ? 0L : PlanetCursor.decode(after);
+		int size = Math.min(Math.max(limit, 1), PlanetService.MAX_PAGE_SIZE);
+		return modifiedSince(exchange).flatMap(etag -> {
+			// One extra row tells us whether there is a next page without a count query.
+			Mono<List<PlanetView>> rows = columnStore.isReady()
+					? Mono.fromSupplier(() -> columnStore.find(filter, afterId, size + 1))
+					: repository.findPage(filter, afterId, size + 1).collectList();
+			return rows.map(planets -> {
+				if (planets.size() <= size) {
+					return ResponseEntity.ok().eTag(etag).body(planets);
+				}
+				List<PlanetView> content = planets.subList(0, size);
+				String cursor = PlanetCursor.encode(content.get(size - 1).id());
+				String next = UriComponentsBuilder.fromUri(exchange.getRequest().getURI())
+						.replaceQueryParam("after", cursor).build().toUriString();
+				return ResponseEntity.ok()
+						.eTag(etag)
+						.header(PlanetController.NEXT_CURSOR_HEADER, cursor)
+						.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+						.body(content);
+			});
+		});
+	}
+
+	@GetMapping("/facets")
+	public Mono<ResponseEntity<PlanetFacets>> facets(@RequestParam(required = false) String climate,
+			@RequestParam(required = false) String terrain,
+			@RequestParam(required = false) List<String> climateToken,
+			@RequestParam(required = false) List<String> terrainToken,
+			@RequestParam(defaultValue = "ANY") TokenMatch match,
+			ServerWebExchange exchange) {
+		PlanetFilter filter = filter(climate, terrain, climateToken, terrainToken, match);
+		return modifiedSince(exchange).flatMap(etag -> {
+			Mono<PlanetFacets> facets = facetIndex.isReady() ? Mono.fromSupplier(() -> facetIndex.facets(filter))
+					: repository.countFacets(filter);
+			return facets.map(counts -> ResponseEntity.ok().eTag(etag).body(counts));
+		});
+	}
+
+	// The catalog ETag, or empty once a matching If-None-Match has turned the exchange into a 304.
+	// JSON, Smile and CBOR bodies share the ETag, so caches must key them by Accept as well.
+	private Mono<String> modifiedSince(ServerWebExchange exchange) {
+		exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+		return repository.catalogGeneration().map(PlanetCatalogGeneration::etag)
+				.filter(etag -> !exchange.checkNotModified(etag));
+	}
+
+	// Rows are written as the driver hands them over, with backpressure from the client's socket.
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<PlanetView> stream(@RequestParam(required = false) String climate,
+			@RequestParam(required = false) String terrain,
+			@RequestParam(required = false) List<String> climateToken,
+			@RequestParam(required = false) List<String> terrainToken,
+			@RequestParam(defaultValue = "ANY") TokenMatch match) {
+		return repository.streamAll(filter(climate, terrain, climateToken, terrainToken, match));
+	}
+
+	@DeleteMapping("/{id}")
+	public Mono<ResponseEntity<Void>> delete(@PathVariable Long id) {
+		return repository.deleteByIds(List.of(id)).map(deleted -> {
+			if (deleted == 0) {
+				return ResponseEntity.notFound().<Void>build();
+			}
+			events.publishEvent(new PlanetsDeletedEvent(List.of(id)));
+			return ResponseEntity.noContent().<Void>build();
+		});
+	}
+
+	// Same rule as the servlet route: ids or a filter, never neither nor both.
+	@DeleteMapping
+	public Mono<ResponseEntity<PlanetDeleteReport>> deleteAll(@RequestParam(required = false) List<Long> id,
+			@RequestParam(required = false) String climate,
+			@RequestParam(required = false) String terrain,
+			@RequestParam(required = false) List<String> climateToken,
+			@RequestParam(required = false) List<String> terrainToken,
+			@RequestParam(defaultValue = "ANY") TokenMatch match) {
+		PlanetFilter filter = filter(climate, terrain, climateToken, terrainToken, match);
+		boolean byId = id != null && !id.isEmpty();
+		if (byId != filter.matchesAll()) {
+			return Mono.just(ResponseEntity.badRequest().build());
+		}
+		Mono<Integer> deleted = byId ? deleteIds(List.copyOf(new LinkedHashSet<>(id))) : deleteMatching(filter);
+		return deleted.map(count -> ResponseEntity.ok(new PlanetDeleteReport(count)));
+	}
+
+	private Mono<Integer> deleteIds(List<Long> ids) {
+		return repository.deleteByIds(ids).doOnNext(deleted -> {
+			if (deleted > 0) {
+				events.publishEvent(new PlanetsDeletedEvent(ids));
+			}
+		});
+	}
+
+	private Mono<Integer> deleteMatching(PlanetFilter filter) {
+		return repository.deleteMatching(filter).doOnNext(deleted -> {
+			if (deleted > 0) {
+				events.publishEvent(new PlanetsDeletedMatchingEvent(filter));
+			}
+		});
+	}
+
+	private static Mono<ResponseEntity<PlanetView>> found(Mono<PlanetRow> row) {
+		return row.map(PlanetRow::view)
+				.map(planet -> ResponseEntity.ok().eTag(planet.id() + "-" + planet.version())
+						.varyBy(HttpHeaders.ACCEPT).body(planet))
+				.defaultIfEmpty(ResponseEntity.notFound().build());
+	}
+
+	private static PlanetFilter filter(String climate, String terrain, List<String> climateTokens,
+			List<String> terrainTokens, TokenMatch match) {
+		return new PlanetFilter(climate, terrain, climateTokens == null ? null : Set.copyOf(climateTokens),
+				terrainTokens == null ? null : Set.copyOf(terrainTokens), match);
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.marcos.demo.reactive;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.Repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking counterpart of PlanetRepository. Only declared queries are exposed: inherited CRUD
+// methods would carry @Transactional and resolve to the (primary) JPA transaction manager.
+public interface ReactivePlanetRepository extends Repository<PlanetRow, Long>, ReactivePlanetRepositoryCustom {
+
+	Mono<PlanetRow> findById(Long id);
+
+	Mono<PlanetRow> findByName(String name);
+
+	Flux<PlanetRow> findByNameStartingWithIgnoreCaseOrderByNameAsc(String prefix, Limit limit);
+
+}
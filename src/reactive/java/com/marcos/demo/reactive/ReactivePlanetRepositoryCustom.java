@@ -0,0 +1,34 @@
+package com.marcos.demo.reactive;
+
+import java.util.Collection;
+
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetFacets;
+import com.marcos.demo.domain.PlanetFilter;
+import com.marcos.demo.domain.PlanetView;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactivePlanetRepositoryCustom {
+
+	Flux<PlanetView> findPage(PlanetFilter filter, long after, int limit);
+
+	Flux<PlanetView> streamAll(PlanetFilter filter);
+
+	Flux<Long> findIds(PlanetFilter filter);
+
+	Mono<PlanetFacets> countFacets(PlanetFilter filter);
+
+	// The planet row and its token rows in one transaction; a taken name fails with DataIntegrityViolationException.
+	Mono<PlanetView> insert(Planet planet);
+
+	Mono<Integer> deleteByIds(Collection<Long> ids);
+
+	// One DELETE with the filter as its predicate.
+	Mono<Integer> deleteMatching(PlanetFilter filter);
+
+	// The planet_catalog generation that PlanetCatalogGeneration.etag() reads over JDBC.
+	Mono<Long> catalogGeneration();
+
+}
@@ -0,0 +1,136 @@
+package com.marcos.demo.reactive;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetFacets;
+import com.marcos.demo.domain.PlanetFilter;
+import com.marcos.demo.domain.PlanetView;
+import com.marcos.demo.repository.PlanetFilterSql;
+import com.marcos.demo.service.PlanetCatalogGeneration;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// The SQL twin of PlanetRepositoryCustomImpl: same keyset reads over the lookup key and token tables,
+// with the filter rendered by PlanetFilterSql.
+public class ReactivePlanetRepositoryCustomImpl implements ReactivePlanetRepositoryCustom {
+
+	private static final String VIEW = "p.id, p.name, p.climate, p.terain, p.version";
+	private static final String ORDER_BY_ID = " order by p.id";
+	private static final String INSERT = "insert into planets (name, climate, terain) values (:name, :climate, :terain)";
+	private static final String INSERT_CLIMATE_TOKEN = "insert into planet_climate_tokens (planet_id, token) values (:id, :token)";
+	private static final String INSERT_TERRAIN_TOKEN = "insert into planet_terrain_tokens (planet_id, token) values (:id, :token)";
+
+	private final DatabaseClient client;
+	private final TransactionalOperator transactions;
+
+	public ReactivePlanetRepositoryCustomImpl(DatabaseClient client, TransactionalOperator transactions) {
+		this.client = client;
+		this.transactions = transactions;
+	}
+
+	@Override
+	public Flux<PlanetView> findPage(PlanetFilter filter, long after, int limit) {
+		return query(VIEW, filter, after, ORDER_BY_ID + " limit " + limit).map(ReactivePlanetRepositoryCustomImpl::view).all();
+	}
+
+	@Override
+	public Flux<PlanetView> streamAll(PlanetFilter filter) {
+		return query(VIEW, filter, 0L, ORDER_BY_ID).map(ReactivePlanetRepositoryCustomImpl::view).all();
+	}
+
+	@Override
+	public Flux<Long> findIds(PlanetFilter filter) {
+		return query("p.id", filter, 0L, ORDER_BY_ID).map(row -> row.get(0, Long.class)).all();
+	}
+
+	@Override
+	public Mono<PlanetFacets> countFacets(PlanetFilter filter) {
+		return Mono.zip(countBy("p.climate_key", filter), countBy("p.terrain_key", filter))
+				.map(counts -> PlanetFacets.of(counts.getT1(), counts.getT2()));
+	}
+
+	private Mono<Map<String, Long>> countBy(String key, PlanetFilter filter) {
+		return query(key + ", count(*)", filter, 0L, " group by " + key)
+				.map(row -> Map.entry(row.get(0, String.class) == null ? "" : row.get(0, String.class),
+						row.get(1, Long.class)))
+				.all()
+				.collectMap(Map.Entry::getKey, Map.Entry::getValue);
+	}
+
+	@Override
+	public Mono<PlanetView> insert(Planet planet) {
+		return client.sql(INSERT)
+				.bind("name", planet.getName())
+				.bind("climate", planet.getClimate())
+				.bind("terain", planet.getTerain())
+				.filter(statement -> statement.returnGeneratedValues("id"))
+				.map(row -> row.get(0, Long.class))
+				.one()
+				.flatMap(id -> tokens(INSERT_CLIMATE_TOKEN, id, Planet.tokens(planet.getClimate()))
+						.then(tokens(INSERT_TERRAIN_TOKEN, id, Planet.tokens(planet.getTerain())))
+						.then(client.sql(PlanetCatalogGeneration.BUMP).then())
+						.thenReturn(new PlanetView(id, planet.getName(), planet.getClimate(), planet.getTerain())))
+				.as(transactions::transactional);
+	}
+
+	private Mono<Void> tokens(String sql, Long id, Set<String> tokens) {
+		return Flux.fromIterable(tokens)
+				.concatMap(token -> client.sql(sql).bind("id", id).bind("token", token).then())
+				.then();
+	}
+
+	// Token rows go through ON DELETE CASCADE (V3), as with the JPA delete.
+	@Override
+	public Mono<Integer> deleteByIds(Collection<Long> ids) {
+		return delete(client.sql("delete from planets where id in (:ids)").bind("ids", ids));
+	}
+
+	@Override
+	public Mono<Integer> deleteMatching(PlanetFilter filter) {
+		Map<String, Object> parameters = new HashMap<>();
+		String where = PlanetFilterSql.where(filter, "", parameters);
+		return delete(client.sql(where.isEmpty() ? "delete from planets" : "delete from planets where " + where)
+				.bindValues(parameters));
+	}
+
+	private Mono<Integer> delete(DatabaseClient.GenericExecuteSpec delete) {
+		return delete.fetch()
+				.rowsUpdated()
+				.flatMap(deleted -> deleted == 0 ? Mono.just(0)
+						: client.sql(PlanetCatalogGeneration.BUMP).then().thenReturn(deleted.intValue()))
+				.as(transactions::transactional);
+	}
+
+	@Override
+	public Mono<Long> catalogGeneration() {
+		return client.sql(PlanetCatalogGeneration.SELECT).map(row -> row.get(0, Long.class)).one();
+	}
+
+	private DatabaseClient.GenericExecuteSpec query(String select, PlanetFilter filter, long after, String tail) {
+		StringBuilder sql = new StringBuilder("select ").append(select).append(" from planets p where p.id > :after");
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("after", after);
+		String where = PlanetFilterSql.where(filter, "p.", parameters);
+		if (!where.isEmpty()) {
+			sql.append(" and ").append(where);
+		}
+		sql.append(tail);
+		return client.sql(sql.toString()).bindValues(parameters);
+	}
+
+	private static PlanetView view(Readable row) {
+		Long version = row.get(4, Long.class);
+		return new PlanetView(row.get(0, Long.class), row.get(1, String.class), row.get(2, String.class),
+				row.get(3, String.class), version == null ? 0L : version);
+	}
+
+}
@@ -16,6 +16,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
 
+import com.marcos.demo.controller.PlanetController;
 import com.marcos.demo.domain.Planet;
 
 
@@ -83,6 +84,19 @@ public class PlanetIT {
     assertThat(sut.getBody()[0]).isEqualTo(TATOOINE);
   }
 
+  @Test
+  public void listPlanets_WithLimit_ReturnsPagesUsingCursor() {
+    ResponseEntity<Planet[]> firstPage = restTemplate.getForEntity("/planets?limit=2", Planet[].class);
+    String cursor = firstPage.getHeaders().getFirst(PlanetController.NEXT_CURSOR_HEADER);
+    ResponseEntity<Planet[]> secondPage = restTemplate.getForEntity("/planets?limit=2&after=" + cursor,
+        Planet[].class);
+
+    assertThat(firstPage.getBody()).hasSize(2);
+    assertThat(cursor).isNotNull();
+    assertThat(secondPage.getBody()).hasSize(1);
+    assertThat(secondPage.getHeaders().containsKey(PlanetController.NEXT_CURSOR_HEADER)).isFalse();
+  }
+
   @Test
   public void removePlanet_ReturnsNoContent() {
     ResponseEntity<Void> sut = restTemplate.exchange("/planets/" + TATOOINE.getId(), HttpMethod.DELETE, null,
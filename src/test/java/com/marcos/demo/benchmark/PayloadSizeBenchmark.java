@@ -0,0 +1,69 @@
+package com.marcos.demo.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcos.demo.common.BenchmarkReport;
+import com.marcos.demo.config.WebFormatsConfig;
+import com.marcos.demo.domain.PlanetView;
+
+/*
+ * mvn test -Pbenchmark -Dtest=PayloadSizeBenchmark
+ * Bytes on the wire for a GET /planets page in each format, raw and gzipped, written to
+ * target/benchmarks/payload-size.txt. Serialization CPU is measured by PlanetFormatBenchmark (-Pjmh).
+ */
+@Tag("benchmark")
+public class PayloadSizeBenchmark {
+
+	private static final int[] SIZES = { 10, 100, 1000 };
+
+	@Test
+	public void comparePayloadSizes() throws IOException {
+		Map<String, ObjectMapper> formats = Map.of("json", new ObjectMapper(),
+				"smile", new ObjectMapper(WebFormatsConfig.smileFactory()),
+				"cbor", new ObjectMapper(WebFormatsConfig.cborFactory()));
+		List<String> report = new ArrayList<>();
+		report.add(String.format("%-6s %8s %12s %12s %8s%n", "format", "planets", "bytes", "gzip bytes", "vs json"));
+		for (int size : SIZES) {
+			List<PlanetView> planets = planets(size);
+			int json = formats.get("json").writeValueAsBytes(planets).length;
+			for (String format : List.of("json", "smile", "cbor")) {
+				byte[] raw = formats.get(format).writeValueAsBytes(planets);
+				int gzip = gzip(raw);
+				report.add(String.format("%-6s %8d %12d %12d %7.0f%%%n", format, size, raw.length, gzip,
+						100.0 * raw.length / json));
+				assertThat(gzip).isPositive();
+			}
+		}
+
+		BenchmarkReport.write(Path.of("target", "benchmarks", "payload-size.txt"), report);
+	}
+
+	private static List<PlanetView> planets(int size) {
+		return IntStream.range(0, size)
+				.mapToObj(i -> new PlanetView((long) i, "Planet " + i, i % 3 == 0 ? "arid" : "temperate, tropical",
+						i % 2 == 0 ? "desert" : "jungle, rainforests"))
+				.toList();
+	}
+
+	private static int gzip(byte[] raw) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+			gzip.write(raw);
+		}
+		return bytes.size();
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.marcos.demo.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.marcos.demo.common.BenchmarkReport;
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetBatchReport;
+import com.marcos.demo.service.PlanetBatchWriter;
+import com.marcos.demo.service.PlanetCatalogGeneration;
+import com.marcos.demo.service.PlanetService;
+
+import jakarta.validation.Validator;
+
+/*
+ * mvn test -Pbenchmark -Dbenchmark.planets=50000
+ * Writes planets/second for one-by-one saves and several JDBC batch sizes to target/benchmarks.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureTestDatabase
+public class PlanetBatchInsertBenchmark {
+
+	private static final int PLANETS = Integer.getInteger("benchmark.planets", 20_000);
+
+	@Autowired
+	private PlanetService service;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private Validator validator;
+
+	@Autowired
+	private ApplicationEventPublisher events;
+
+	@Autowired
+	private PlanetCatalogGeneration catalogGeneration;
+
+	@AfterEach
+	public void afterEach() {
+		jdbcTemplate.update("delete from planets");
+	}
+
+	@Test
+	public void compareSingleSavesWithJdbcBatches() throws IOException {
+		List<String> report = new ArrayList<>();
+		report.add(String.format("%-28s %12s%n", "strategy", "planets/s"));
+
+		// Warm up JIT and the connection pool before anything is timed.
+		new PlanetBatchWriter(jdbcTemplate, transactionManager, validator, events, catalogGeneration, 100).write(planets("warmup", 2_000).iterator());
+
+		report.add(measure("repository.save per planet", () -> planets("single", PLANETS).forEach(service::create)));
+		for (int batchSize : new int[] { 50, 500, 2_000 }) {
+			PlanetBatchWriter writer = new PlanetBatchWriter(jdbcTemplate, transactionManager, validator, events, catalogGeneration,
+					batchSize);
+			report.add(measure("jdbc batch of " + batchSize, () -> {
+				PlanetBatchReport result = writer.write(planets("batch" + batchSize, PLANETS).iterator());
+				assertThat(result.created()).isEqualTo(PLANETS);
+			}));
+		}
+
+		BenchmarkReport.write(Path.of("target", "benchmarks", "batch-insert.txt"), report);
+	}
+
+	private String measure(String strategy, Runnable load) {
+		long start = System.nanoTime();
+		load.run();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		return String.format("%-28s %12.0f%n", strategy, PLANETS / seconds);
+	}
+
+	private static List<Planet> planets(String prefix, int count) {
+		return IntStream.range(0, count)
+				.mapToObj(i -> new Planet(prefix + "-" + i, i % 2 == 0 ? "arid" : "temperate", "desert"))
+				.toList();
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.marcos.demo.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.marcos.demo.common.BenchmarkReport;
+import com.marcos.demo.domain.PlanetFileFormat;
+import com.marcos.demo.domain.PlanetImportReport;
+import com.marcos.demo.service.PlanetImporter;
+
+/*
+ * mvn test -Pbenchmark -Dtest=PlanetImportBenchmark -Dbenchmark.planets=1000000
+ * Generates CSV and NDJSON files of the given size, imports each into an empty table and writes
+ * planets/second to target/benchmarks/import.txt. Point spring.datasource.* at MySQL (with
+ * rewriteBatchedStatements=true) for numbers that reflect a real server.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureTestDatabase
+public class PlanetImportBenchmark {
+
+	private static final int PLANETS = Integer.getInteger("benchmark.planets", 200_000);
+
+	@Autowired
+	private PlanetImporter importer;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@TempDir
+	private Path dir;
+
+	@AfterEach
+	public void afterEach() {
+		jdbcTemplate.update("delete from planets");
+	}
+
+	@Test
+	public void importCsvAndNdjson() throws IOException {
+		List<String> report = new ArrayList<>();
+		report.add(String.format("%-8s %10s %12s %10s%n", "format", "planets", "planets/s", "MB"));
+		report.add(measure(PlanetFileFormat.CSV, "planets.csv"));
+		jdbcTemplate.update("delete from planets");
+		report.add(measure(PlanetFileFormat.NDJSON, "planets.ndjson"));
+
+		BenchmarkReport.write(Path.of("target", "benchmarks", "import.txt"), report);
+	}
+
+	private String measure(PlanetFileFormat format, String name) throws IOException {
+		Path file = dir.resolve(name);
+		try (BufferedWriter out = Files.newBufferedWriter(file)) {
+			if (format == PlanetFileFormat.CSV) {
+				out.write("name,climate,terrain\n");
+			}
+			for (int i = 0; i < PLANETS; i++) {
+				String climate = i % 2 == 0 ? "arid" : "temperate";
+				out.write(format == PlanetFileFormat.CSV ? "planet-" + i + "," + climate + ",\"desert, mountains\"\n"
+						: "{\"name\":\"planet-" + i + "\",\"climate\":\"" + climate + "\",\"terain\":\"desert, mountains\"}\n");
+			}
+		}
+
+		PlanetImportReport result = importer.importFile(file, format);
+
+		assertThat(result.created()).isEqualTo(PLANETS);
+		return String.format("%-8s %10d %12.0f %10.1f%n", format.name().toLowerCase(), PLANETS,
+				PLANETS * 1000.0 / Math.max(1, result.millis()), result.bytes() / 1e6);
+	}
+
+}
@@ -0,0 +1,136 @@
+package com.marcos.demo.benchmark;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.marcos.demo.common.BenchmarkReport;
+
+/*
+ * mvn test -Pbenchmark -Dtest=StartupTimeBenchmark [-Dstartup.runs=5]
+ * Launches the app in a fresh JVM per run and measures the time from process start to the first
+ * GET /planets answered with 200: once with defaults, once with the "startup" profile and, when
+ * mvn -Pstartup -DskipTests package has produced target/startup, once from the AOT-processed jar
+ * with its CDS archive. Every run uses its own in-memory H2, so only startup work is compared.
+ * Report: target/benchmarks/startup.txt.
+ */
+@Tag("benchmark")
+public class StartupTimeBenchmark {
+
+	private static final int RUNS = Integer.getInteger("startup.runs", 3);
+	private static final Duration TIMEOUT = Duration.ofSeconds(120);
+	private static final Path STARTUP_DIR = Path.of("target", "startup");
+	private static final String JAVA = ProcessHandle.current().info().command().orElse("java");
+
+	private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+	@Test
+	public void compareStartupModes() throws Exception {
+		List<String> report = new ArrayList<>();
+		report.add(String.format("%-12s %6s %10s %10s %10s%n", "mode", "runs", "min ms", "median ms", "max ms"));
+		report.add(run("default", false, false));
+		report.add(run("startup", true, false));
+		if (Files.exists(STARTUP_DIR.resolve("demo.jsa")) && startupJar() != null) {
+			report.add(run("aot+cds", true, true));
+		}
+
+		BenchmarkReport.write(Path.of("target", "benchmarks", "startup.txt"), report);
+	}
+
+	private String run(String mode, boolean startupProfile, boolean aot) throws Exception {
+		long[] millis = new long[RUNS];
+		for (int i = 0; i < RUNS; i++) {
+			millis[i] = launch(mode + "-" + i, startupProfile, aot);
+		}
+		Arrays.sort(millis);
+		return String.format("%-12s %6d %10d %10d %10d%n", mode, RUNS, millis[0], millis[RUNS / 2], millis[RUNS - 1]);
+	}
+
+	private long launch(String name, boolean startupProfile, boolean aot) throws Exception {
+		int port = freePort();
+		List<String> command = new ArrayList<>(List.of(JAVA));
+		if (aot) {
+			// The archive only maps classes when the class path matches the training run, so run from there.
+			command.addAll(List.of("-XX:SharedArchiveFile=demo.jsa", "-Dspring.aot.enabled=true", "-jar",
+					startupJar().getFileName().toString()));
+		} else {
+			command.addAll(List.of("-cp", System.getProperty("java.class.path"), "com.marcos.demo.DemoApplication"));
+		}
+		command.addAll(List.of("--server.port=" + port,
+				"--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+				"--spring.datasource.driverClassName=org.h2.Driver",
+				"--spring.datasource.username=sa",
+				"--spring.datasource.password=",
+				"--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"));
+		if (startupProfile) {
+			command.add("--spring.profiles.active=startup");
+		}
+
+		ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+		if (aot) {
+			builder.directory(STARTUP_DIR.toFile());
+		}
+		long start = System.nanoTime();
+		Process process = builder.start();
+		try {
+			awaitFirstRequest(process, port, start);
+			return (System.nanoTime() - start) / 1_000_000;
+		} finally {
+			process.destroy();
+			if (!process.waitFor(30, TimeUnit.SECONDS)) {
+				process.destroyForcibly();
+			}
+		}
+	}
+
+	private void awaitFirstRequest(Process process, int port, long start) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/planets?limit=1"))
+				.timeout(Duration.ofSeconds(5))
+				.build();
+		while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+			if (!process.isAlive()) {
+				throw new IllegalStateException("Application exited with " + process.exitValue());
+			}
+			try {
+				if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+					return;
+				}
+			} catch (ConnectException ex) {
+				// Not listening yet.
+			}
+			Thread.sleep(10);
+		}
+		throw new IllegalStateException("No 200 from GET /planets within " + TIMEOUT);
+	}
+
+	private static Path startupJar() throws IOException {
+		if (!Files.isDirectory(STARTUP_DIR)) {
+			return null;
+		}
+		try (var files = Files.list(STARTUP_DIR)) {
+			return files.filter(file -> file.getFileName().toString().endsWith("-startup.jar")).findFirst().orElse(null);
+		}
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+}
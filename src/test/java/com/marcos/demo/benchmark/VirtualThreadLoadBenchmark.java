@@ -0,0 +1,134 @@
+package com.marcos.demo.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.marcos.demo.DemoApplication;
+import com.marcos.demo.common.BenchmarkReport;
+import com.marcos.demo.config.VirtualThreadParallelism;
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.service.PlanetService;
+
+/*
+ * mvn test -Pbenchmark -Dtest=VirtualThreadLoadBenchmark -Dload.clients=800 -Dload.seconds=30
+ * Starts the app once on the platform-thread pool and once with the "virtual" profile, drives the
+ * same GET /planets load against both and writes throughput and p99 to target/benchmarks.
+ * Embedded H2 answers too fast for threads to matter much; point -Dload.datasource.url (plus
+ * -Dload.datasource.username/password) at MySQL for numbers that reflect JDBC wait time.
+ * H2 never blocks inside a monitor, so pinning only shows against MySQL: add
+ * -DargLine=-Djdk.tracePinnedThreads=short and every stack printed is a carrier pinned by
+ * mysql-connector-j 8.x (ClientPreparedStatement.executeInternal holds connectionMutex). The
+ * carrier count is raised to the pool size before the first virtual thread, the load generator's,
+ * starts; otherwise the virtual run could not use more connections than there are cores.
+ */
+@Tag("benchmark")
+public class VirtualThreadLoadBenchmark {
+
+	private static final int CLIENTS = Integer.getInteger("load.clients", 400);
+	private static final int SECONDS = Integer.getInteger("load.seconds", 20);
+	private static final int PLANETS = 5_000;
+
+	static {
+		VirtualThreadParallelism.apply(20); // spring.datasource.hikari.maximum-pool-size
+	}
+
+	@Test
+	public void comparePlatformAndVirtualThreads() throws Exception {
+		List<String> report = new ArrayList<>();
+		report.add(String.format("%-10s %8s %12s %10s %10s%n", "threads", "clients", "requests/s", "p50 ms", "p99 ms"));
+		report.add(run("platform", false));
+		report.add(run("virtual", true));
+
+		BenchmarkReport.write(Path.of("target", "benchmarks", "virtual-threads.txt"), report);
+	}
+
+	private String run(String mode, boolean virtual) throws Exception {
+		try (ConfigurableApplicationContext context = start(mode, virtual)) {
+			PlanetService service = context.getBean(PlanetService.class);
+			service.createBatch(IntStream.range(0, PLANETS)
+					.mapToObj(i -> new Planet(mode + "-" + i, i % 2 == 0 ? "arid" : "temperate", "desert"))
+					.iterator());
+			int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+			return String.format("%-10s %8d %s", mode, CLIENTS, load(port));
+		}
+	}
+
+	private static ConfigurableApplicationContext start(String mode, boolean virtual) {
+		String url = System.getProperty("load.datasource.url", "jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1");
+		return new SpringApplicationBuilder(DemoApplication.class)
+				.profiles(virtual ? "virtual" : "default")
+				.properties("server.port=0",
+						"spring.datasource.driverClassName=",
+						"spring.datasource.url=" + url,
+						"spring.datasource.username=" + System.getProperty("load.datasource.username", "sa"),
+						"spring.datasource.password=" + System.getProperty("load.datasource.password", ""),
+						"spring.jpa.hibernate.ddl-auto=none",
+						"planet.cache.max-size=1")
+				.run();
+	}
+
+	private static String load(int port) throws IOException, InterruptedException {
+		HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+		ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+		AtomicLong failures = new AtomicLong();
+		long deadline = System.nanoTime() + Duration.ofSeconds(SECONDS).toNanos();
+
+		// The load generator itself runs on virtual threads so it is never the bottleneck.
+		try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < CLIENTS; c++) {
+				int offset = c;
+				clients.submit(() -> {
+					for (int i = offset; System.nanoTime() < deadline; i += CLIENTS) {
+						String climate = i % 2 == 0 ? "arid" : "temperate";
+						HttpRequest request = HttpRequest
+								.newBuilder(URI.create("http://localhost:" + port + "/planets?limit=50&climate=" + climate))
+								.build();
+						long start = System.nanoTime();
+						try {
+							HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+							if (response.statusCode() == 200) {
+								latencies.add(System.nanoTime() - start);
+							} else {
+								failures.incrementAndGet();
+							}
+						} catch (IOException ex) {
+							failures.incrementAndGet();
+						}
+					}
+					return null;
+				});
+			}
+		}
+
+		long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+		assertThat(sorted).isNotEmpty();
+		return String.format("%12.0f %10.1f %10.1f%s%n", sorted.length / (double) SECONDS,
+				percentile(sorted, 0.50), percentile(sorted, 0.99),
+				failures.get() == 0 ? "" : "  (" + failures.get() + " failed)");
+	}
+
+	private static double percentile(long[] sorted, double p) {
+		return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+	}
+
+}
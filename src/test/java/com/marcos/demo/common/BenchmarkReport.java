@@ -0,0 +1,27 @@
+package com.marcos.demo.common;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Benchmarks and load tests hand their result table here: it is written under target/ and logged.
+public final class BenchmarkReport {
+
+	private static final Logger log = LoggerFactory.getLogger(BenchmarkReport.class);
+
+	private BenchmarkReport() {
+	}
+
+	public static Path write(Path output, List<String> lines) throws IOException {
+		String table = String.join("", lines);
+		Files.createDirectories(output.getParent());
+		Files.writeString(output, table);
+		log.info("{}{}{}", output, System.lineSeparator(), table);
+		return output;
+	}
+
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetView;
 
 public class PlanetConstants {
 	
@@ -20,5 +21,6 @@ public class PlanetConstants {
 	      add(YAVINIV);
 	    }
 	  };
+	  public static final List<PlanetView> PLANET_VIEWS = PLANETS.stream().map(PlanetView::of).toList();
 
 }
@@ -0,0 +1,38 @@
+package com.marcos.demo.common;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Registered through hibernate.session_factory.statement_inspector, so tests can look at the SQL Hibernate actually sends.
+public class SqlRecorder implements StatementInspector {
+
+	private static final List<String> STATEMENTS = new ArrayList<>();
+
+	@Override
+	public String inspect(String sql) {
+		synchronized (STATEMENTS) {
+			STATEMENTS.add(sql);
+		}
+		return sql;
+	}
+
+	public static void clear() {
+		synchronized (STATEMENTS) {
+			STATEMENTS.clear();
+		}
+	}
+
+	public static String lastSelect() {
+		synchronized (STATEMENTS) {
+			for (int i = STATEMENTS.size() - 1; i >= 0; i--) {
+				if (STATEMENTS.get(i).stripLeading().toLowerCase().startsWith("select")) {
+					return STATEMENTS.get(i);
+				}
+			}
+		}
+		throw new IllegalStateException("No select was recorded");
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.marcos.demo.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.marcos.demo.domain.BatchItemResult.Status;
+import com.marcos.demo.repository.PlanetRepository;
+import com.marcos.demo.service.PlanetBatchWriter;
+import com.marcos.demo.service.PlanetCatalogGeneration;
+
+@DataJpaTest(properties = "planet.batch.size=2")
+@Import({ PlanetBatchWriter.class, PlanetCatalogGeneration.class })
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PlanetBatchWriterTest {
+
+	@Autowired
+	private PlanetBatchWriter writer;
+
+	@Autowired
+	private PlanetRepository repository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	public void afterEach() {
+		jdbcTemplate.update("delete from planets");
+	}
+
+	@Test
+	public void write_InsertsEveryChunkWithGeneratedIds() {
+		List<Planet> planets = List.of(new Planet("Tatooine", "arid", "desert"),
+				new Planet("Alderaan", "temperate", "mountains"), new Planet("Hoth", "frozen", "tundra"));
+		long generation = jdbcTemplate.queryForObject(PlanetCatalogGeneration.SELECT, Long.class);
+
+		PlanetBatchReport sut = writer.write(planets.iterator());
+
+		assertThat(sut.created()).isEqualTo(3);
+		assertThat(sut.items()).extracting(BatchItemResult::index).containsExactly(0, 1, 2);
+		assertThat(sut.items()).allSatisfy(item -> assertThat(item.id()).isNotNull());
+		assertThat(repository.findById(sut.items().get(2).id())).map(Planet::getName).contains("Hoth");
+		// One bump per committed chunk of two.
+		assertThat(jdbcTemplate.queryForObject(PlanetCatalogGeneration.SELECT, Long.class)).isEqualTo(generation + 2);
+	}
+
+	@Test
+	public void write_ReportsConflictsAndInvalidItems() {
+		repository.save(new Planet("Tatooine", "arid", "desert"));
+		List<Planet> planets = List.of(new Planet("Tatooine", "arid", "desert"), new Planet("", "", ""),
+				new Planet("Hoth", "frozen", "tundra"), new Planet("Hoth", "frozen", "tundra"));
+
+		PlanetBatchReport sut = writer.write(planets.iterator());
+
+		assertThat(sut.items()).extracting(BatchItemResult::status)
+				.containsExactly(Status.CONFLICT, Status.INVALID, Status.CREATED, Status.CONFLICT);
+		assertThat(repository.count()).isEqualTo(2);
+	}
+
+	@Test
+	public void write_WithNullItem_ReportsItInvalid() {
+		List<Planet> planets = Arrays.asList(new Planet("Tatooine", "arid", "desert"), null,
+				new Planet("Hoth", "frozen", "tundra"));
+
+		PlanetBatchReport sut = writer.write(planets.iterator());
+
+		assertThat(sut.items()).extracting(BatchItemResult::status)
+				.containsExactly(Status.CREATED, Status.INVALID, Status.CREATED);
+		assertThat(sut.items().get(1).name()).isNull();
+		assertThat(repository.count()).isEqualTo(2);
+	}
+
+}
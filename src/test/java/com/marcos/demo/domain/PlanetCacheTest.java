@@ -0,0 +1,90 @@
+package com.marcos.demo.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcos.demo.service.CacheStats;
+import com.marcos.demo.service.PlanetCache;
+
+public class PlanetCacheTest {
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final PlanetCache cache = new PlanetCache(2, Duration.ofSeconds(10), clock::get);
+
+	@Test
+	public void put_IndexesPlanetByIdAndName() {
+		PlanetView planet = new PlanetView(1L, "Tatooine", "arid", "desert");
+
+		cache.put(planet, cache.generation());
+
+		assertThat(cache.getById(1L)).contains(planet);
+		assertThat(cache.getByName("Tatooine")).contains(planet);
+	}
+
+	@Test
+	public void put_OverMaxSize_EvictsLeastRecentlyUsed() {
+		PlanetView tatooine = new PlanetView(1L, "Tatooine", "arid", "desert");
+		PlanetView alderaan = new PlanetView(2L, "Alderaan", "temperate", "grasslands");
+		PlanetView hoth = new PlanetView(3L, "Hoth", "frozen", "tundra");
+
+		cache.put(tatooine, cache.generation());
+		cache.put(alderaan, cache.generation());
+		cache.getById(1L);
+		cache.put(hoth, cache.generation());
+
+		assertThat(cache.getById(2L)).isEmpty();
+		assertThat(cache.getByName("Alderaan")).isEmpty();
+		assertThat(cache.getById(1L)).contains(tatooine);
+		assertThat(cache.stats().evictions()).isEqualTo(1);
+	}
+
+	@Test
+	public void getById_AfterTtl_ReturnsEmpty() {
+		cache.put(new PlanetView(1L, "Tatooine", "arid", "desert"), cache.generation());
+
+		clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+		assertThat(cache.getById(1L)).isEmpty();
+		assertThat(cache.stats().size()).isZero();
+	}
+
+	@Test
+	public void put_WithGenerationBeforeEvict_IsDiscarded() {
+		long generation = cache.generation();
+
+		cache.evict(1L);
+		cache.put(new PlanetView(1L, "Tatooine", "arid", "desert"), generation);
+
+		assertThat(cache.getById(1L)).isEmpty();
+	}
+
+	@Test
+	public void evict_RemovesBothIndexes() {
+		cache.put(new PlanetView(1L, "Tatooine", "arid", "desert"), cache.generation());
+
+		cache.evict(1L);
+
+		assertThat(cache.getById(1L)).isEmpty();
+		assertThat(cache.getByName("Tatooine")).isEmpty();
+	}
+
+	@Test
+	public void stats_CountsHitsAndMisses() {
+		cache.put(new PlanetView(1L, "Tatooine", "arid", "desert"), cache.generation());
+
+		cache.getById(1L);
+		cache.getByName("Tatooine");
+		cache.getById(2L);
+
+		CacheStats stats = cache.stats();
+		assertThat(stats.hits()).isEqualTo(2);
+		assertThat(stats.misses()).isEqualTo(1);
+		assertThat(stats.size()).isEqualTo(1);
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.marcos.demo.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.marcos.demo.catalog.PlanetColumnStore;
+
+public class PlanetColumnStoreTest {
+
+	private PlanetColumnStore store;
+
+	@BeforeEach
+	public void setUp() {
+		store = new PlanetColumnStore("columnar");
+		store.reset();
+		store.add(List.of(new PlanetView(1L, "Tatooine", "arid", "desert"),
+				new PlanetView(2L, "Alderaan", "temperate", "grasslands, mountains"),
+				new PlanetView(3L, "Yavin IV", "Temperate, tropical", "jungle, rainforests"),
+				new PlanetView(4L, "Hoth", "frozen", "tundra, ice caves, mountain ranges")));
+		store.ready();
+	}
+
+	@Test
+	public void find_ByLookupKeys_IgnoresCaseAndSpaces() {
+		List<PlanetView> sut = store.find(new PlanetFilter(" ARID ", "desert"), 0L, 10);
+
+		assertThat(sut).extracting(PlanetView::name).containsExactly("Tatooine");
+	}
+
+	@Test
+	public void find_ByTokens_MatchesAnyOrAll() {
+		PlanetFilter any = new PlanetFilter(null, null, Set.of("temperate"), Set.of("mountains", "jungle"), TokenMatch.ANY);
+		PlanetFilter all = new PlanetFilter(null, null, Set.of("temperate"), Set.of("jungle", "rainforests"), TokenMatch.ALL);
+
+		assertThat(store.find(any, 0L, 10)).extracting(PlanetView::id).containsExactly(2L, 3L);
+		assertThat(store.find(all, 0L, 10)).extracting(PlanetView::id).containsExactly(3L);
+	}
+
+	@Test
+	public void find_WithCursorAndLimit_ReturnsNextRowsInIdOrder() {
+		assertThat(store.find(PlanetFilter.ALL, 1L, 2)).extracting(PlanetView::id).containsExactly(2L, 3L);
+	}
+
+	@Test
+	public void removeAndAdd_KeepsFiltersAndIdOrder() {
+		store.remove(List.of(2L));
+		store.add(List.of(new PlanetView(6L, "Kamino", "temperate", "ocean"), new PlanetView(5L, "Bespin", "temperate", "gas giant")));
+
+		List<PlanetView> sut = store.find(new PlanetFilter("temperate", null), 0L, 10);
+
+		assertThat(sut).extracting(PlanetView::id).containsExactly(5L, 6L);
+		assertThat(store.size()).isEqualTo(5);
+	}
+
+	@Test
+	public void add_OutOfIdOrder_SlotsRowsInPlace() {
+		store.add(List.of(new PlanetView(9L, "Mustafar", "hot", "volcanoes")));
+		store.add(List.of(new PlanetView(7L, "Dagobah", "murky", "swamp, jungles"),
+				new PlanetView(5L, "Bespin", "temperate", "gas giant")));
+		store.remove(List.of(3L));
+		store.add(List.of(new PlanetView(6L, "Kamino", "temperate", "ocean")));
+
+		PlanetFilter temperate = new PlanetFilter(null, null, Set.of("temperate"), Set.of(), TokenMatch.ANY);
+		assertThat(store.find(PlanetFilter.ALL, 0L, 10)).extracting(PlanetView::id).containsExactly(1L, 2L, 4L, 5L, 6L,
+				7L, 9L);
+		assertThat(store.find(temperate, 0L, 10)).extracting(PlanetView::id).containsExactly(2L, 5L, 6L);
+		assertThat(store.find(new PlanetFilter("hot", "volcanoes"), 0L, 10)).extracting(PlanetView::name)
+				.containsExactly("Mustafar");
+		assertThat(store.find(PlanetFilter.ALL, 5L, 2)).extracting(PlanetView::id).containsExactly(6L, 7L);
+
+		store.remove(List.of(6L));
+		assertThat(store.find(temperate, 0L, 10)).extracting(PlanetView::id).containsExactly(2L, 5L);
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.marcos.demo.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcos.demo.service.PlanetExporter;
+import com.marcos.demo.service.PlanetService;
+
+@ExtendWith(MockitoExtension.class)
+public class PlanetExporterTest {
+
+	@Mock
+	private PlanetService service;
+
+	@TempDir
+	private Path dir;
+
+	private PlanetExporter exporter;
+
+	@BeforeEach
+	public void setUp() {
+		exporter = new PlanetExporter(service, new ObjectMapper());
+	}
+
+	@Test
+	public void export_Csv_WritesQuotedRowsToGzipFile() throws IOException {
+		snapshot(new PlanetView(1L, "Tatooine", "arid", "desert"),
+				new PlanetView(2L, "Alderaan \"prime\"", "temperate", "grasslands, mountains"));
+		Path target = dir.resolve("planets.csv.gz");
+
+		PlanetExportReport sut = exporter.export(target, PlanetFileFormat.CSV);
+
+		assertThat(sut.rows()).isEqualTo(2);
+		assertThat(sut.bytes()).isEqualTo(Files.size(target));
+		assertThat(gunzip(target)).isEqualTo("id,name,climate,terrain\n"
+				+ "1,Tatooine,arid,desert\n"
+				+ "2,\"Alderaan \"\"prime\"\"\",temperate,\"grasslands, mountains\"\n");
+		assertThat(dir.resolve("planets.csv.gz.part")).doesNotExist();
+	}
+
+	@Test
+	public void export_Ndjson_WritesOneObjectPerLine() throws IOException {
+		snapshot(new PlanetView(1L, "Tatooine", "arid", "desert", 3L));
+		Path target = dir.resolve("planets.ndjson.gz");
+
+		exporter.export(target, PlanetFileFormat.NDJSON);
+
+		assertThat(gunzip(target))
+				.isEqualTo("{\"id\":1,\"name\":\"Tatooine\",\"climate\":\"arid\",\"terain\":\"desert\"}\n");
+	}
+
+	@Test
+	public void export_WhenSnapshotFails_KeepsPreviousFile() throws IOException {
+		Path target = Files.writeString(dir.resolve("planets.ndjson.gz"), "previous");
+		doThrow(new QueryTimeoutException("timeout")).when(service).exportSnapshot(any());
+
+		assertThatThrownBy(() -> exporter.export(target, PlanetFileFormat.NDJSON))
+				.isInstanceOf(QueryTimeoutException.class);
+
+		assertThat(target).hasContent("previous");
+		assertThat(dir.resolve("planets.ndjson.gz.part")).doesNotExist();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void snapshot(PlanetView... planets) {
+		doAnswer(invocation -> {
+			Consumer<PlanetView> sink = invocation.getArgument(0);
+			for (PlanetView planet : planets) {
+				sink.accept(planet);
+			}
+			return null;
+		}).when(service).exportSnapshot(any(Consumer.class));
+	}
+
+	private static String gunzip(Path file) throws IOException {
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.marcos.demo.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.marcos.demo.catalog.PlanetFacetIndex;
+
+public class PlanetFacetIndexTest {
+
+	private PlanetFacetIndex index;
+
+	@BeforeEach
+	public void setUp() {
+		index = new PlanetFacetIndex(true);
+		index.reset();
+		index.add(List.of(new PlanetView(1L, "Tatooine", "arid", "desert"),
+				new PlanetView(2L, "Alderaan", "temperate", "grasslands, mountains"),
+				new PlanetView(3L, "Yavin IV", "Temperate, tropical", "jungle, rainforests"),
+				new PlanetView(4L, "Geonosis", " Arid ", "desert")));
+		index.ready();
+	}
+
+	@Test
+	public void facets_WithoutFilter_CountsCaseFoldedValuesMostCommonFirst() {
+		PlanetFacets sut = index.facets(PlanetFilter.ALL);
+
+		assertThat(sut.total()).isEqualTo(4);
+		assertThat(sut.climate()).containsExactly(entry("arid", 2L), entry("temperate", 1L),
+				entry("temperate, tropical", 1L));
+		assertThat(sut.terrain()).containsEntry("desert", 2L).hasSize(3);
+	}
+
+	@Test
+	public void facets_WithFilter_CountsOnlyMatchingPlanets() {
+		PlanetFilter filter = new PlanetFilter(null, null, Set.of("temperate"), null, TokenMatch.ANY);
+
+		PlanetFacets sut = index.facets(filter);
+
+		assertThat(sut.total()).isEqualTo(2);
+		assertThat(sut.terrain()).containsOnlyKeys("grasslands, mountains", "jungle, rainforests");
+	}
+
+	@Test
+	public void removeAndAdd_UpdatesCountsIncrementally() {
+		index.remove(List.of(1L, 4L, 99L));
+		index.add(List.of(new PlanetView(5L, "Hoth", "frozen", "tundra"), new PlanetView(2L, "Alderaan", "arid", "desert")));
+
+		PlanetFacets sut = index.facets(PlanetFilter.ALL);
+
+		assertThat(sut.total()).isEqualTo(3);
+		assertThat(sut.climate()).doesNotContainKey("arid").containsEntry("frozen", 1L);
+	}
+
+}
@@ -0,0 +1,120 @@
+package com.marcos.demo.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.marcos.demo.repository.PlanetRepository;
+import com.marcos.demo.service.PlanetBatchWriter;
+import com.marcos.demo.service.PlanetCatalogGeneration;
+import com.marcos.demo.service.PlanetImporter;
+
+@DataJpaTest(properties = "planet.import.batch-size=2")
+@Import({ PlanetBatchWriter.class, PlanetCatalogGeneration.class, PlanetImporter.class })
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PlanetImporterTest {
+
+	@Autowired
+	private PlanetImporter importer;
+
+	@Autowired
+	private PlanetRepository repository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@TempDir
+	private Path dir;
+
+	@AfterEach
+	public void afterEach() {
+		jdbcTemplate.update("delete from planets");
+	}
+
+	@Test
+	public void importFile_Csv_UsesHeaderOrderAndQuoting() throws IOException {
+		Path file = Files.writeString(dir.resolve("planets.csv"), "climate,terrain,name\r\n"
+				+ "arid,desert,Tatooine\r\n"
+				+ "temperate,\"grasslands, mountains\",\"Alderaan \"\"prime\"\"\"\r\n"
+				+ "\r\n"
+				+ "frozen,\"tundra,\nice caves\",Hoth");
+
+		PlanetImportReport sut = importer.importFile(file, PlanetFileFormat.CSV);
+
+		assertThat(sut.rows()).isEqualTo(3);
+		assertThat(sut.created()).isEqualTo(3);
+		assertThat(repository.findByName("Alderaan \"prime\"")).map(Planet::getTerain).contains("grasslands, mountains");
+		assertThat(repository.findByName("Hoth")).map(Planet::getTerain).contains("tundra,\nice caves");
+		assertThat(PlanetImporter.checkpointOf(file)).doesNotExist();
+	}
+
+	@Test
+	public void importFile_Ndjson_CountsConflictsAndInvalidLines() throws IOException {
+		Path file = Files.writeString(dir.resolve("planets.ndjson"), """
+				{"name":"Tatooine","climate":"arid","terain":"desert","films":[1,2]}
+				{"name":"Tatooine","climate":"arid","terain":"desert"}
+				not json
+				{"name":"Hoth","climate":"frozen"}
+				{"name":"Bespin","climate":"temperate","terrain":"gas giant"}
+				""");
+
+		PlanetImportReport sut = importer.importFile(file, PlanetFileFormat.NDJSON);
+
+		assertThat(sut.rows()).isEqualTo(5);
+		assertThat(sut.created()).isEqualTo(2);
+		assertThat(sut.conflicts()).isEqualTo(1);
+		assertThat(sut.invalid()).isEqualTo(2);
+		assertThat(repository.findByName("Bespin")).map(Planet::getTerain).contains("gas giant");
+	}
+
+	@Test
+	public void importFile_WithCheckpoint_ResumesAfterCommittedRows() throws IOException {
+		String done = "Tatooine,arid,desert\nAlderaan,temperate,mountains\n";
+		Path file = Files.writeString(dir.resolve("planets.csv"), done + "Hoth,frozen,tundra\n");
+		Files.writeString(PlanetImporter.checkpointOf(file), checkpoint(file, done.length()));
+
+		PlanetImportReport sut = importer.importFile(file, PlanetFileFormat.CSV);
+
+		assertThat(sut.resumedAt()).isEqualTo(done.length());
+		assertThat(sut.rows()).isEqualTo(3);
+		assertThat(sut.created()).isEqualTo(3);
+		assertThat(repository.findAll()).extracting(Planet::getName).containsExactly("Hoth");
+		assertThat(PlanetImporter.checkpointOf(file)).doesNotExist();
+	}
+
+	@Test
+	public void importFile_WithCheckpointOfChangedFile_RefusesToResume() throws IOException {
+		String done = "Tatooine,arid,desert\nAlderaan,temperate,mountains\n";
+		Path file = Files.writeString(dir.resolve("planets.csv"), done + "Hoth,frozen,tundra\n");
+		Files.writeString(PlanetImporter.checkpointOf(file), checkpoint(file, done.length()));
+		Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+
+		assertThatThrownBy(() -> importer.importFile(file, PlanetFileFormat.CSV))
+				.isInstanceOf(IllegalStateException.class);
+		assertThat(repository.findAll()).isEmpty();
+		assertThat(PlanetImporter.checkpointOf(file)).exists();
+	}
+
+	private static String checkpoint(Path file, long offset) throws IOException {
+		return "size=" + Files.size(file) + "\nmodified=" + Files.getLastModifiedTime(file).toMillis() + "\noffset="
+				+ offset + "\nrows=2\ncreated=2\nconflicts=0\ninvalid=0\n";
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.marcos.demo.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+
+import com.marcos.demo.domain.IngestStatus.State;
+import com.marcos.demo.service.PlanetIngestQueue;
+import com.marcos.demo.service.PlanetService;
+
+public class PlanetIngestQueueTest {
+
+	private final PlanetService service = mock(PlanetService.class);
+
+	private final PlanetIngestQueue queue = new PlanetIngestQueue(service, 2, 10, Duration.ZERO, Duration.ZERO, 100);
+
+	@Test
+	public void flush_WritesQueuedPlanetsAsOneBatchAndRecordsOutcomes() throws InterruptedException {
+		when(service.createBatch(any())).thenReturn(PlanetBatchReport.of(List.of(
+				BatchItemResult.created(0, "Tatooine", 7L), BatchItemResult.conflict(1, "Hoth"))));
+		IngestStatus tatooine = queue.submit(new Planet("Tatooine", "arid", "desert")).orElseThrow();
+		IngestStatus hoth = queue.submit(new Planet("Hoth", "frozen", "tundra")).orElseThrow();
+
+		assertThat(queue.status(tatooine.trackingId())).map(IngestStatus::state).contains(State.QUEUED);
+
+		assertThat(queue.flush()).isEqualTo(2);
+		assertThat(queue.status(tatooine.trackingId())).map(IngestStatus::id).contains(7L);
+		assertThat(queue.status(hoth.trackingId())).map(IngestStatus::state).contains(State.DUPLICATE);
+	}
+
+	@Test
+	public void submit_WhenQueueIsFull_Rejects() throws InterruptedException {
+		queue.submit(new Planet("Tatooine", "arid", "desert"));
+		queue.submit(new Planet("Alderaan", "temperate", "mountains"));
+
+		Optional<IngestStatus> sut = queue.submit(new Planet("Hoth", "frozen", "tundra"));
+
+		assertThat(sut).isEmpty();
+		assertThat(queue.pending()).isEqualTo(2);
+	}
+
+	@Test
+	public void flush_WhenWriteFails_MarksItemsFailed() throws InterruptedException {
+		when(service.createBatch(any())).thenThrow(new IllegalStateException("database down"));
+		IngestStatus tatooine = queue.submit(new Planet("Tatooine", "arid", "desert")).orElseThrow();
+
+		queue.flush();
+
+		assertThat(queue.status(tatooine.trackingId())).map(IngestStatus::state).contains(State.FAILED);
+	}
+
+	@Test
+	public void stop_WaitsForTheWriteInProgressAndThenRejectsSubmits() throws InterruptedException {
+		CountDownLatch writing = new CountDownLatch(1);
+		AtomicBoolean interrupted = new AtomicBoolean();
+		when(service.createBatch(any())).thenAnswer(invocation -> {
+			writing.countDown();
+			Thread.sleep(200);
+			interrupted.set(Thread.currentThread().isInterrupted());
+			return PlanetBatchReport.of(List.of(BatchItemResult.created(0, "Tatooine", 7L)));
+		});
+		queue.start();
+		IngestStatus tatooine = queue.submit(new Planet("Tatooine", "arid", "desert")).orElseThrow();
+		assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+		queue.stop();
+
+		assertThat(interrupted).isFalse();
+		assertThat(queue.status(tatooine.trackingId())).map(IngestStatus::state).contains(State.CREATED);
+		assertThat(queue.submit(new Planet("Hoth", "frozen", "tundra"))).isEmpty();
+		assertThat(queue.isRunning()).isFalse();
+	}
+
+	@Test
+	public void stop_WritesEverythingAcceptedBeforeIt() throws InterruptedException {
+		when(service.createBatch(any())).thenReturn(PlanetBatchReport.of(List.of(
+				BatchItemResult.created(0, "Tatooine", 7L), BatchItemResult.created(1, "Hoth", 8L))));
+		IngestStatus tatooine = queue.submit(new Planet("Tatooine", "arid", "desert")).orElseThrow();
+		IngestStatus hoth = queue.submit(new Planet("Hoth", "frozen", "tundra")).orElseThrow();
+		queue.start();
+
+		queue.stop();
+
+		assertThat(queue.pending()).isZero();
+		assertThat(queue.status(tatooine.trackingId())).map(IngestStatus::state).contains(State.CREATED);
+		assertThat(queue.status(hoth.trackingId())).map(IngestStatus::state).contains(State.CREATED);
+	}
+
+	@Test
+	public void phase_StopsAfterTheWebServer() {
+		assertThat(queue.getPhase()).isLessThan(WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.marcos.demo.domain;
+
+import static com.marcos.demo.common.PlanetConstants.PLANET_VIEWS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcos.demo.config.PlanetJsonMessageConverter;
+import com.marcos.demo.event.PlanetsDeletedEvent;
+import com.marcos.demo.service.PlanetJsonCache;
+
+public class PlanetJsonCacheTest {
+
+	private static final Type PLANET_LIST = new ParameterizedTypeReference<List<PlanetView>>() {
+	}.getType();
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private final PlanetJsonCache cache = new PlanetJsonCache(true, 100, mapper);
+
+	@Test
+	public void json_ForSameVersion_ReusesEncodedBytes() throws Exception {
+		PlanetView planet = new PlanetView(1L, "Tatooine", "arid", "desert", 3);
+
+		byte[] first = cache.json(planet);
+
+		assertThat(first).isEqualTo(mapper.writeValueAsBytes(planet));
+		assertThat(cache.json(planet)).isSameAs(first);
+		assertThat(cache.json(new PlanetView(1L, "Tatooine", "arid", "desert", 4))).isNotSameAs(first);
+	}
+
+	@Test
+	public void onDeleted_DropsEntries() throws Exception {
+		PlanetView planet = new PlanetView(1L, "Tatooine", "arid", "desert");
+		byte[] first = cache.json(planet);
+
+		cache.onDeleted(new PlanetsDeletedEvent(List.of(1L)));
+
+		assertThat(cache.json(planet)).isNotSameAs(first).isEqualTo(first);
+	}
+
+	@Test
+	public void converter_WritesListLikeJackson() throws Exception {
+		PlanetJsonMessageConverter converter = new PlanetJsonMessageConverter(cache);
+		MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+		assertThat(converter.canWrite(PLANET_LIST, List.class, MediaType.APPLICATION_JSON)).isTrue();
+		assertThat(converter.canWrite(String.class, String.class, MediaType.APPLICATION_JSON)).isFalse();
+		converter.write(PLANET_VIEWS, PLANET_LIST, MediaType.APPLICATION_JSON, output);
+
+		assertThat(output.getBodyAsString()).isEqualTo(mapper.writeValueAsString(PLANET_VIEWS));
+	}
+
+	@Test
+	public void converter_WhenCacheDisabled_LeavesPlanetsToJackson() {
+		PlanetJsonMessageConverter converter = new PlanetJsonMessageConverter(new PlanetJsonCache(false, 100, mapper));
+
+		assertThat(converter.canWrite(PlanetView.class, PlanetView.class, MediaType.APPLICATION_JSON)).isFalse();
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.marcos.demo.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.marcos.demo.catalog.PlanetNameIndex;
+
+public class PlanetNameIndexTest {
+
+	private PlanetNameIndex index;
+
+	@BeforeEach
+	public void setUp() {
+		index = new PlanetNameIndex(true);
+		index.reset();
+		index.add(List.of(new PlanetView(1L, "Tatooine", "arid", "desert"),
+				new PlanetView(2L, "Taris", "temperate", "urban"),
+				new PlanetView(3L, "tatooine", "arid", "desert"),
+				new PlanetView(4L, "Alderaan", "temperate", "grasslands, mountains"),
+				new PlanetView(5L, "Yavin IV", "temperate, tropical", "jungle, rainforests")));
+		index.ready();
+	}
+
+	@Test
+	public void suggest_IgnoresCaseAndKeepsFoldedOrder() {
+		List<PlanetSuggestion> sut = index.suggest("TA", 10);
+
+		assertThat(sut).extracting(PlanetSuggestion::id).containsExactly(2L, 1L, 3L);
+	}
+
+	@Test
+	public void suggest_StopsAtLimitAndAtTheEndOfThePrefixRange() {
+		assertThat(index.suggest("ta", 2)).extracting(PlanetSuggestion::name).containsExactly("Taris", "Tatooine");
+		assertThat(index.suggest("yavin ", 10)).extracting(PlanetSuggestion::id).containsExactly(5L);
+		assertThat(index.suggest("tz", 10)).isEmpty();
+	}
+
+	@Test
+	public void removeAndAdd_AreVisibleToTheNextSuggestion() {
+		index.remove(List.of(1L, 3L));
+		index.add(List.of(new PlanetView(6L, "Takodana", "temperate", "forests, lakes")));
+
+		assertThat(index.suggest("ta", 10)).extracting(PlanetSuggestion::name).containsExactly("Takodana", "Taris");
+	}
+
+}
@@ -5,9 +5,14 @@ import static com.marcos.demo.common.PlanetConstants.TATOOINE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,11 +20,13 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.jdbc.Sql;
 
+import com.marcos.demo.common.SqlRecorder;
 import com.marcos.demo.repository.PlanetRepository;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.marcos.demo.common.SqlRecorder")
 public class PlanetRepositoryTest {
 
 	@Autowired
@@ -125,6 +132,107 @@ public class PlanetRepositoryTest {
 	    assertThat(response).isEmpty();
 	  }
 
+	  @Test
+	  public void findPage_ReturnsRowsAfterCursorInIdOrder() {
+	    Planet tatooine = manager.persistFlushFind(new Planet("Tatooine", "arid", "desert"));
+	    Planet alderaan = manager.persistFlushFind(new Planet("Alderaan", "temperate", "mountains"));
+	    Planet yavin = manager.persistFlushFind(new Planet("Yavin IV", "Temperate", "jungle"));
+
+	    List<PlanetView> firstPage = repository.findPage(PlanetFilter.ALL, 0L, 2);
+	    List<PlanetView> secondPage = repository.findPage(PlanetFilter.ALL, alderaan.getId(), 2);
+	    List<PlanetView> filtered = repository.findPage(new PlanetFilter(" TEMPERATE", null), tatooine.getId(), 10);
+
+	    assertThat(firstPage).extracting(PlanetView::id).containsExactly(tatooine.getId(), alderaan.getId());
+	    assertThat(secondPage).extracting(PlanetView::id).containsExactly(yavin.getId());
+	    assertThat(filtered).extracting(PlanetView::id).containsExactly(alderaan.getId(), yavin.getId());
+	  }
+
+	  @Test
+	  public void streamAll_ReturnsFilteredRowsInIdOrder() {
+	    Planet alderaan = manager.persistFlushFind(new Planet("Alderaan", "temperate", "mountains"));
+	    manager.persistFlushFind(new Planet("Tatooine", "arid", "desert"));
+	    Planet yavin = manager.persistFlushFind(new Planet("Yavin IV", "Temperate", "jungle"));
+
+	    try (Stream<PlanetView> sut = repository.streamAll(new PlanetFilter("temperate", null))) {
+	      assertThat(sut.map(PlanetView::id)).containsExactly(alderaan.getId(), yavin.getId());
+	    }
+	  }
+
+	  @Test
+	  public void findPage_ByTerrainTokens_MatchesAnyOrAll() {
+	    Planet alderaan = manager.persistFlushFind(new Planet("Alderaan", "temperate", "grasslands, mountains"));
+	    Planet hoth = manager.persistFlushFind(new Planet("Hoth", "frozen", "tundra, ice caves, Mountains"));
+	    manager.persistFlushFind(new Planet("Tatooine", "arid", "desert"));
+
+	    List<PlanetView> any = repository.findPage(
+	        new PlanetFilter(null, null, null, Set.of("grasslands", "ice caves"), TokenMatch.ANY), 0L, 10);
+	    List<PlanetView> all = repository.findPage(
+	        new PlanetFilter(null, null, null, Set.of("grasslands", "mountains"), TokenMatch.ALL), 0L, 10);
+	    List<PlanetView> mountains = repository.findPage(
+	        new PlanetFilter(null, null, Set.of("frozen"), Set.of("MOUNTAINS"), TokenMatch.ALL), 0L, 10);
+
+	    assertThat(any).extracting(PlanetView::id).containsExactly(alderaan.getId(), hoth.getId());
+	    assertThat(all).extracting(PlanetView::id).containsExactly(alderaan.getId());
+	    assertThat(mountains).extracting(PlanetView::id).containsExactly(hoth.getId());
+	  }
+
+	  @Test
+	  public void findViewById_ReturnsProjectionWithoutManagedEntity() {
+	    Planet planet = manager.persistFlushFind(new Planet("Tatooine", "arid", "desert"));
+	    manager.clear();
+
+	    Optional<PlanetView> sut = repository.findViewById(planet.getId());
+
+	    assertThat(sut).contains(new PlanetView(planet.getId(), "Tatooine", "arid", "desert"));
+	    assertThat(manager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+	  }
+
+	  @Test
+	  public void tokenQueries_UseMembershipIndex() {
+	    manager.persistFlushFind(new Planet("Alderaan", "temperate", "grasslands, mountains"));
+
+	    for (TokenMatch match : TokenMatch.values()) {
+	      SqlRecorder.clear();
+	      repository.findPage(new PlanetFilter(null, null, null, Set.of("mountains", "desert"), match), 0L, 10);
+	      String sql = SqlRecorder.lastSelect();
+
+	      assertThat(explain(sql)).as(sql).doesNotContainIgnoringCase("tableScan")
+	          .containsIgnoringCase("idx_planet_terrain_tokens_token");
+	    }
+	  }
+
+
+	  @Test
+	  public void filteredQueries_UseLookupKeyIndexes() {
+	    manager.persistFlushFind(new Planet("Tatooine", "Arid", "Desert"));
+	    manager.persistFlushFind(new Planet("Alderaan", "temperate", "mountains"));
+
+	    // Explains the SQL Hibernate generated for each call, not a copy of it.
+	    List<Runnable> filteredQueries = List.of(
+	        () -> repository.findPage(new PlanetFilter("arid", null), 0L, 10),
+	        () -> repository.findPage(new PlanetFilter(null, "desert"), 0L, 10),
+	        () -> repository.findPage(new PlanetFilter("arid", "desert"), 0L, 10),
+	        () -> repository.findAll(QueryBuilder.makeQuery(new Planet("arid", null))));
+
+	    for (Runnable query : filteredQueries) {
+	      SqlRecorder.clear();
+	      query.run();
+	      String sql = SqlRecorder.lastSelect();
+
+	      assertThat(explain(sql)).as(sql).doesNotContainIgnoringCase("tableScan").containsIgnoringCase("idx_planets_");
+	    }
+	  }
+
+	  @Test
+	  public void listPlanets_MatchesClimateIgnoringCase() {
+	    Planet tatooine = manager.persistFlushFind(new Planet("Tatooine", "Arid", "Desert"));
+	    manager.persistFlushFind(new Planet("Alderaan", "temperate", "mountains"));
+
+	    List<Planet> sut = repository.findAll(QueryBuilder.makeQuery(new Planet("ARID", "desert")));
+
+	    assertThat(sut).extracting(Planet::getId).containsExactly(tatooine.getId());
+	  }
+
 	  @Test
 	  public void removePlanet_WithExistingId_RemovesPlanetFromDatabase() {
 	    Planet planet = manager.persistFlushFind(PLANET);
@@ -135,8 +243,87 @@ public class PlanetRepositoryTest {
 	    assertThat(removedPlanet).isNull();
 	  }
 
+	  @Test
+	  public void removePlanets_ByIds_DeletesInOneStatementAndReturnsCount() {
+	    Planet planet = manager.persistFlushFind(PLANET);
+	    manager.detach(planet);
+
+	    int sut = repository.deleteByIds(List.of(planet.getId(), 999L));
+
+	    assertThat(sut).isEqualTo(1);
+	    assertThat(manager.find(Planet.class, planet.getId())).isNull();
+	    assertThat(repository.deleteByIds(List.of(planet.getId()))).isZero();
+	  }
+
+	  @Test
+	  public void findIds_WithFilter_ReturnsMatchingIdsInOrder() {
+	    Planet tatooine = manager.persistFlushFind(new Planet("Tatooine", "arid", "desert"));
+	    manager.persistFlushFind(new Planet("Alderaan", "temperate", "grasslands, mountains"));
+	    Planet geonosis = manager.persistFlushFind(new Planet("Geonosis", "Arid", "rock, desert"));
+
+	    List<Long> sut = repository.findIds(new PlanetFilter("arid", null));
+
+	    assertThat(sut).containsExactly(tatooine.getId(), geonosis.getId());
+	  }
+
+	  @Test
+	  public void deleteMatching_WithFilter_DeletesOnlyTheMatchesAndTheirTokens() {
+	    Planet tatooine = manager.persistFlushFind(new Planet("Tatooine", "arid", "desert"));
+	    Planet alderaan = manager.persistFlushFind(new Planet("Alderaan", "temperate", "grasslands, mountains"));
+	    Planet geonosis = manager.persistFlushFind(new Planet("Geonosis", "Arid", "rock, desert"));
+	    manager.clear();
+
+	    int byTokens = repository.deleteMatching(new PlanetFilter(null, null, null, Set.of("desert", "rock"), TokenMatch.ALL));
+	    int byKey = repository.deleteMatching(new PlanetFilter("arid", null));
+
+	    assertThat(byTokens).isEqualTo(1);
+	    assertThat(byKey).isEqualTo(1);
+	    assertThat(repository.findIds(PlanetFilter.ALL)).containsExactly(alderaan.getId());
+	    assertThat(manager.getEntityManager()
+	        .createNativeQuery("select count(*) from planet_terrain_tokens where planet_id in (:ids)")
+	        .setParameter("ids", List.of(tatooine.getId(), geonosis.getId()))
+	        .getSingleResult()).isEqualTo(0L);
+	  }
+
+	  @Test
+	  public void findByNameStartingWith_IgnoresCaseAndLimits() {
+	    manager.persistFlushFind(new Planet("Tatooine", "arid", "desert"));
+	    manager.persistFlushFind(new Planet("Taris", "temperate", "urban"));
+	    manager.persistFlushFind(new Planet("Alderaan", "temperate", "grasslands, mountains"));
+
+	    List<PlanetSuggestion> sut = repository.findByNameStartingWithIgnoreCaseOrderByNameAsc("ta", Limit.of(1));
+
+	    assertThat(sut).extracting(PlanetSuggestion::name).containsExactly("Taris");
+	  }
+
+	  @Test
+	  public void countFacets_WithFilter_GroupsByLookupKeys() {
+	    manager.persistFlushFind(new Planet("Tatooine", "arid", "desert"));
+	    manager.persistFlushFind(new Planet("Geonosis", "Arid", "rock"));
+	    manager.persistFlushFind(new Planet("Alderaan", "temperate", "grasslands, mountains"));
+
+	    PlanetFacets all = repository.countFacets(PlanetFilter.ALL);
+	    PlanetFacets arid = repository.countFacets(new PlanetFilter("arid", null));
+
+	    assertThat(all.total()).isEqualTo(3);
+	    assertThat(all.climate()).containsEntry("arid", 2L).containsEntry("temperate", 1L);
+	    assertThat(arid.terrain()).containsOnlyKeys("desert", "rock");
+	  }
+
 	  @Test
 	  public void removePlanet_WithUnexistingId_ThrowsException() {
 	    assertThatThrownBy(() -> repository.deleteById(1L)).isInstanceOf(EmptyResultDataAccessException.class);
 	  }
+
+	  // H2 plans a statement with unbound parameters, so the recorded SQL is explained as it is.
+	  private String explain(String sql) {
+	    return manager.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+	      try (PreparedStatement statement = connection.prepareStatement("explain " + sql);
+	          ResultSet plan = statement.executeQuery()) {
+	        plan.next();
+	        return plan.getString(1);
+	      }
+	    });
+	  }
+
 }
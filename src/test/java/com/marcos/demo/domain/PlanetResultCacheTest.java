@@ -0,0 +1,79 @@
+package com.marcos.demo.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcos.demo.service.PlanetResultCache;
+import com.marcos.demo.service.ResultCacheStats;
+
+public class PlanetResultCacheTest {
+
+	private static final PlanetFilter ARID = new PlanetFilter("arid", null);
+	private static final List<PlanetView> ROWS = List.of(new PlanetView(1L, "Tatooine", "arid", "desert"));
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final PlanetResultCache cache = new PlanetResultCache(2, 10, Duration.ofSeconds(30), clock::get);
+
+	@Test
+	public void get_AfterNewerGeneration_MissesAndDropsEverything() {
+		cache.put(ARID, 0L, 10, 1L, ROWS);
+
+		assertThat(cache.get(ARID, 0L, 10, 1L)).contains(ROWS);
+		assertThat(cache.get(ARID, 0L, 10, 2L)).isEmpty();
+		assertThat(cache.stats().size()).isZero();
+		assertThat(cache.stats().estimatedBytes()).isZero();
+	}
+
+	@Test
+	public void get_AfterTtl_MissesUnderTheSameGeneration() {
+		cache.put(ARID, 0L, 10, 1L, ROWS);
+		clock.addAndGet(Duration.ofSeconds(30).toNanos());
+
+		assertThat(cache.get(ARID, 0L, 10, 1L)).isEmpty();
+		assertThat(cache.stats().size()).isZero();
+		assertThat(cache.stats().estimatedBytes()).isZero();
+	}
+
+	@Test
+	public void put_ReadUnderOlderGeneration_IsNotKept() {
+		cache.get(ARID, 0L, 10, 2L);
+
+		cache.put(ARID, 0L, 10, 1L, ROWS);
+
+		assertThat(cache.get(ARID, 0L, 10, 2L)).isEmpty();
+	}
+
+	@Test
+	public void put_BeyondLimits_EvictsEldestAndSkipsLongResults() {
+		cache.put(ARID, 0L, 10, 1L, ROWS);
+		cache.put(ARID, 0L, 20, 1L, ROWS);
+		cache.put(ARID, 5L, 10, 1L, ROWS);
+		cache.put(PlanetFilter.ALL, 0L, 100, 1L, Collections.nCopies(11, ROWS.get(0)));
+
+		ResultCacheStats sut = cache.stats();
+
+		assertThat(sut.size()).isEqualTo(2);
+		assertThat(sut.evictions()).isEqualTo(1);
+		assertThat(sut.estimatedBytes()).isPositive();
+		assertThat(cache.get(ARID, 0L, 10, 1L)).isEmpty();
+		assertThat(cache.get(PlanetFilter.ALL, 0L, 100, 1L)).isEmpty();
+	}
+
+	@Test
+	public void stats_ReportsHitRatio() {
+		cache.put(ARID, 0L, 10, 1L, ROWS);
+		cache.get(ARID, 0L, 10, 1L);
+		cache.get(ARID, 0L, 10, 1L);
+		cache.get(PlanetFilter.ALL, 0L, 10, 1L);
+
+		assertThat(cache.stats().hitRatio()).isEqualTo(2.0 / 3);
+	}
+
+}
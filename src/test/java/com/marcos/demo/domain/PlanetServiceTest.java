@@ -5,23 +5,52 @@ import static com.marcos.demo.common.PlanetConstants.PLANET;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Example;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.marcos.demo.catalog.PlanetColumnStore;
+import com.marcos.demo.catalog.PlanetFacetIndex;
+import com.marcos.demo.catalog.PlanetNameIndex;
+import com.marcos.demo.catalog.PlanetTrigramIndex;
+import com.marcos.demo.event.PlanetsCreatedEvent;
+import com.marcos.demo.event.PlanetsDeletedEvent;
+import com.marcos.demo.event.PlanetsDeletedMatchingEvent;
 import com.marcos.demo.repository.PlanetRepository;
+import com.marcos.demo.service.InvalidCursorException;
+import com.marcos.demo.service.PlanetBatchWriter;
+import com.marcos.demo.service.PlanetCache;
+import com.marcos.demo.service.PlanetCatalogGeneration;
+import com.marcos.demo.service.PlanetCursor;
+import com.marcos.demo.service.PlanetMetrics;
+import com.marcos.demo.service.PlanetResultCache;
 import com.marcos.demo.service.PlanetService;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 public class PlanetServiceTest {
 
@@ -31,6 +60,43 @@ public class PlanetServiceTest {
 	@Mock
 	private PlanetRepository repository;
 
+	@Spy
+	private PlanetCache cache = new PlanetCache(100, Duration.ofMinutes(5));
+
+	@Mock
+	private PlanetBatchWriter batchWriter;
+
+	@Mock
+	private PlanetColumnStore columnStore;
+
+	@Mock
+	private PlanetFacetIndex facetIndex;
+
+	@Mock
+	private PlanetNameIndex nameIndex;
+
+	@Mock
+	private PlanetTrigramIndex trigramIndex;
+
+	@Mock
+	private ApplicationEventPublisher events;
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+	@Spy
+	private PlanetCatalogGeneration catalogGeneration = new PlanetCatalogGeneration(jdbcTemplate);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Spy
+	private PlanetMetrics metrics = new PlanetMetrics(meterRegistry);
+
+	@Spy
+	private PlanetResultCache resultCache = new PlanetResultCache(100, 10_000, Duration.ofMinutes(5));
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
 	@Test
 	public void createPlanet_WithValidData_ReturnPlanet() {
 
@@ -50,58 +116,141 @@ public class PlanetServiceTest {
 
 	}
 
+	@Test
+	public void createBatch_EvictsCreatedPlanetsFromCache() {
+		PlanetView planet = new PlanetView(1L, "Tatooine", "arid", "desert");
+		when(repository.findViewById(1L)).thenReturn(Optional.of(planet));
+		service.getId(1L);
+		Iterator<Planet> planets = List.of(PLANET).iterator();
+		when(batchWriter.write(planets))
+				.thenReturn(PlanetBatchReport.of(List.of(BatchItemResult.created(0, "Tatooine", 1L))));
+
+		PlanetBatchReport sut = service.createBatch(planets);
+
+		assertThat(sut.created()).isEqualTo(1);
+		service.getId(1L);
+		verify(repository, times(2)).findViewById(1L);
+	}
+
 	@Test
 	public void getPlanet_ByIdExisting_ReturnPlanet() {
-		when(repository.findById(1L)).thenReturn(Optional.of(PLANET));
+		when(repository.findViewById(1L)).thenReturn(Optional.of(PlanetView.of(PLANET)));
 
-		Optional<Planet> sut = service.getId(1L);
+		Optional<PlanetView> sut = service.getId(1L);
 
 		assertThat(sut).isNotEmpty();
-		assertThat(sut.get()).isEqualTo(PLANET);
+		assertThat(sut.get()).isEqualTo(PlanetView.of(PLANET));
 
 	}
 
 	@Test
 	public void getPlanet_ByIdInexistente_ReturnException() {
-		when(repository.findById(3L)).thenThrow(RuntimeException.class);
+		when(repository.findViewById(3L)).thenThrow(RuntimeException.class);
 
 		assertThatThrownBy(() -> service.getId(3L)).isInstanceOf(RuntimeException.class);
 	}
 
 	@Test
 	public void getPlanet_ByIdInexistente2_ReturnException() {
-		when(repository.findById(3L)).thenReturn(Optional.empty());
+		when(repository.findViewById(3L)).thenReturn(Optional.empty());
 
-		Optional<Planet> sut = service.getId(3L);
+		Optional<PlanetView> sut = service.getId(3L);
 
 		assertThat(sut).isEmpty();
 	}
 
+	@Test
+	public void getPlanet_ByIdTwice_HitsRepositoryOnce() {
+		PlanetView planet = new PlanetView(1L, "Tatooine", "arid", "desert");
+		when(repository.findViewById(1L)).thenReturn(Optional.of(planet));
+
+		service.getId(1L);
+		Optional<PlanetView> sut = service.getId(1L);
+
+		assertThat(sut).contains(planet);
+		verify(repository, times(1)).findViewById(1L);
+		assertThat(service.cacheStats().hits()).isEqualTo(1);
+	}
+
+	@Test
+	public void getPlanet_RecordsOutcomeTimers() {
+		PlanetView planet = new PlanetView(1L, "Tatooine", "arid", "desert");
+		when(repository.findViewById(1L)).thenReturn(Optional.of(planet));
+		when(repository.findViewById(2L)).thenReturn(Optional.empty());
+
+		service.getId(1L);
+		service.getId(1L);
+		service.getId(2L);
+
+		assertThat(meterRegistry.get("planet.service").tags("operation", "getId", "outcome", "found").timer().count())
+				.isEqualTo(1);
+		assertThat(meterRegistry.get("planet.service").tags("operation", "getId", "outcome", "hit").timer().count())
+				.isEqualTo(1);
+		assertThat(meterRegistry.get("planet.service").tags("operation", "getId", "outcome", "not-found").timer().count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	public void createPlanet_WithDuplicateName_RecordsConflict() {
+		when(repository.save(PLANET)).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+		assertThatThrownBy(() -> service.create(PLANET)).isInstanceOf(DataIntegrityViolationException.class);
+
+		assertThat(meterRegistry.get("planet.service").tags("operation", "create", "outcome", "conflict").timer().count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	public void getPlanet_ByNameAfterGetById_ServedFromCache() {
+		PlanetView planet = new PlanetView(1L, "Tatooine", "arid", "desert");
+		when(repository.findViewById(1L)).thenReturn(Optional.of(planet));
+
+		service.getId(1L);
+		Optional<PlanetView> sut = service.getByName("Tatooine");
+
+		assertThat(sut).contains(planet);
+		verify(repository, times(0)).findViewByName("Tatooine");
+	}
+
+	@Test
+	public void getPlanet_AfterDelete_IsNotServedFromCache() {
+		PlanetView planet = new PlanetView(1L, "Tatooine", "arid", "desert");
+		when(repository.findViewById(1L)).thenReturn(Optional.of(planet));
+		service.getId(1L);
+		when(repository.deleteByIds(List.of(1L))).thenReturn(1);
+
+		service.delete(1L);
+		when(repository.findViewById(1L)).thenReturn(Optional.empty());
+
+		assertThat(service.getId(1L)).isEmpty();
+		assertThat(service.getByName("Tatooine")).isEmpty();
+	}
+
 	@Test
 	public void getPlanet_ByNameExisting_ReturnPlanet() {
-		when(repository.findByName("maco")).thenReturn(Optional.of(PLANET));
+		when(repository.findViewByName("maco")).thenReturn(Optional.of(PlanetView.of(PLANET)));
 
-		Optional<Planet> sut = service.getByName("maco");
+		Optional<PlanetView> sut = service.getByName("maco");
 
 		assertThat(sut).isNotEmpty();
-		assertThat(sut.get()).isEqualTo(PLANET);
+		assertThat(sut.get()).isEqualTo(PlanetView.of(PLANET));
 	}
 
 	@Test
 	public void getPlanet_ByNameExisting2_ReturnPlanet() {
-		when(repository.findByName(PLANET.getName())).thenReturn(Optional.of(PLANET));
+		when(repository.findViewByName(PLANET.getName())).thenReturn(Optional.of(PlanetView.of(PLANET)));
 
-		Optional<Planet> sut = service.getByName(PLANET.getName());
+		Optional<PlanetView> sut = service.getByName(PLANET.getName());
 
 		assertThat(sut).isNotEmpty();
-		assertThat(sut.get()).isEqualTo(PLANET);
+		assertThat(sut.get()).isEqualTo(PlanetView.of(PLANET));
 	}
 
 	@Test
 	public void getPlanet_ByNameInexistente_ReturnException() {
-		when(repository.findByName("mac")).thenReturn(Optional.empty());
+		when(repository.findViewByName("mac")).thenReturn(Optional.empty());
 
-		Optional<Planet> sut = service.getByName("mac");
+		Optional<PlanetView> sut = service.getByName("mac");
 
 		assertThat(sut).isEmpty();
 	}
@@ -109,9 +258,9 @@ public class PlanetServiceTest {
 	@Test
 	public void getPlanet_ByNameInexistente2_ReturnException() {
 		final String name = "Invalid name";
-		when(repository.findByName(name)).thenReturn(Optional.empty());
+		when(repository.findViewByName(name)).thenReturn(Optional.empty());
 
-		Optional<Planet> sut = service.getByName(name);
+		Optional<PlanetView> sut = service.getByName(name);
 
 		assertThat(sut).isEmpty();
 	}
@@ -119,22 +268,109 @@ public class PlanetServiceTest {
 	@Test
 	public void listPlanets_ReturnPlanets() {
 
-		List<Planet> planets = new ArrayList<>() {
+		List<PlanetView> planets = new ArrayList<>() {
 			{
-				add(PLANET);
+				add(PlanetView.of(PLANET));
 			}
 		};
 
-		Example<Planet> query = QueryBuilder.makeQuery(new Planet(PLANET.getClimate(), PLANET.getTerain()));
+		PlanetFilter query = new PlanetFilter(PLANET.getClimate(), PLANET.getTerain());
 
-		when(repository.findAll(query)).thenReturn(planets);
+		when(repository.findPage(query, 0L, Integer.MAX_VALUE)).thenReturn(planets);
 
-		List<Planet> sut = service.list(PLANET.getClimate(), PLANET.getTerain());
+		List<PlanetView> sut = service.list(PLANET.getClimate(), PLANET.getTerain());
 
 		assertThat(sut).isEmpty();
 		assertThat(sut).hasSize(1);
-		assertThat(sut.get(0)).isEqualTo(PLANET);
+		assertThat(sut.get(0)).isEqualTo(PlanetView.of(PLANET));
+
+	}
+
+	@Test
+	public void listPage_WithMoreRowsThanLimit_ReturnsNextCursor() {
+		PlanetView tatooine = new PlanetView(1L, "Tatooine", "arid", "desert");
+		PlanetView alderaan = new PlanetView(2L, "Alderaan", "temperate", "grasslands");
+		PlanetView yavin = new PlanetView(3L, "Yavin IV", "temperate", "jungle");
+		when(repository.findPage(PlanetFilter.ALL, 0L, 3))
+				.thenReturn(List.of(tatooine, alderaan, yavin));
+
+		PlanetPage sut = service.listPage(PlanetFilter.ALL, null, 2);
 
+		assertThat(sut.content()).containsExactly(tatooine, alderaan);
+		assertThat(PlanetCursor.decode(sut.nextCursor())).isEqualTo(2L);
+	}
+
+	@Test
+	public void listPage_WithCursor_ReadsAfterLastId() {
+		PlanetView yavin = new PlanetView(3L, "Yavin IV", "temperate", "jungle");
+		when(repository.findPage(new PlanetFilter("temperate", null), 2L, 3)).thenReturn(List.of(yavin));
+
+		PlanetPage sut = service.listPage(new PlanetFilter("temperate", null), PlanetCursor.encode(2L), 2);
+
+		assertThat(sut.content()).containsExactly(yavin);
+		assertThat(sut.hasNext()).isFalse();
+	}
+
+	@Test
+	public void listPage_WithColumnStoreReady_SkipsRepository() {
+		PlanetView yavin = new PlanetView(3L, "Yavin IV", "temperate", "jungle");
+		when(columnStore.isReady()).thenReturn(true);
+		when(columnStore.find(PlanetFilter.ALL, 2L, 3)).thenReturn(List.of(yavin));
+
+		PlanetPage sut = service.listPage(PlanetFilter.ALL, PlanetCursor.encode(2L), 2);
+
+		assertThat(sut.content()).containsExactly(yavin);
+		verifyNoInteractions(repository);
+	}
+
+	@Test
+	public void listPage_RepeatedUntilWriteCommits_QueriesOnce() {
+		PlanetView tatooine = new PlanetView(1L, "Tatooine", "arid", "desert");
+		when(repository.findPage(new PlanetFilter("arid", null), 0L, 11)).thenReturn(List.of(tatooine));
+
+		service.listPage(new PlanetFilter("arid", null), null, 10);
+		PlanetPage sut = service.listPage(new PlanetFilter(" ARID ", null), null, 10);
+		catalogGeneration.onCreated(new PlanetsCreatedEvent(List.of(new PlanetView(2L, "Geonosis", "arid", "rock"))));
+		service.listPage(new PlanetFilter("arid", null), null, 10);
+
+		assertThat(sut.content()).containsExactly(tatooine);
+		verify(repository, times(2)).findPage(new PlanetFilter("arid", null), 0L, 11);
+		assertThat(service.resultCacheStats().hits()).isEqualTo(1);
+	}
+
+	@Test
+	public void catalogETag_ComesFromTheDatabaseGeneration() {
+		when(jdbcTemplate.queryForObject(PlanetCatalogGeneration.SELECT, Long.class)).thenReturn(7L, 8L);
+
+		assertThat(service.catalogETag()).isEqualTo("catalog-7");
+		assertThat(service.catalogETag()).isEqualTo("catalog-8");
+	}
+
+	@Test
+	public void createAndDelete_BumpTheDatabaseGeneration() {
+		when(repository.save(PLANET)).thenReturn(PLANET);
+		when(repository.deleteByIds(List.of(1L))).thenReturn(1);
+
+		service.create(PLANET);
+		service.delete(1L);
+
+		verify(jdbcTemplate, times(2)).update(PlanetCatalogGeneration.BUMP);
+	}
+
+	@Test
+	public void listPage_RecordsResultSize() {
+		when(repository.findPage(PlanetFilter.ALL, 0L, 11)).thenReturn(List.of(new PlanetView(1L, "Tatooine", "arid", "desert")));
+
+		service.listPage(PlanetFilter.ALL, null, 10);
+
+		assertThat(meterRegistry.get("planet.service.results").tag("operation", "listPage").summary().totalAmount())
+				.isEqualTo(1.0);
+	}
+
+	@Test
+	public void listPage_WithInvalidCursor_ThrowsException() {
+		assertThatThrownBy(() -> service.listPage(PlanetFilter.ALL, "not-a-cursor", 10))
+				.isInstanceOf(InvalidCursorException.class);
 	}
 
 	/*@Test
@@ -149,20 +385,108 @@ public class PlanetServiceTest {
 	}*/
 	
 	
+	@Test
+	public void suggest_WhenIndexIsReady_CapsLimitAndDoesNotQueryDatabase() {
+		List<PlanetSuggestion> suggestions = List.of(new PlanetSuggestion(1L, "Tatooine"));
+		when(nameIndex.isReady()).thenReturn(true);
+		when(nameIndex.suggest("tat", PlanetService.MAX_SUGGESTIONS)).thenReturn(suggestions);
+
+		assertThat(service.suggest("tat", 5_000)).isEqualTo(suggestions);
+		verifyNoInteractions(repository);
+	}
+
+	@Test
+	public void suggest_WithBlankPrefix_ReturnsNothing() {
+		assertThat(service.suggest(" ", 10)).isEmpty();
+		verifyNoInteractions(nameIndex, repository);
+	}
+
+	@Test
+	public void search_WhenIndexIsReady_UsesTrigramIndex() {
+		List<PlanetNameMatch> matches = List.of(new PlanetNameMatch(1L, "Tatooine", 0.7));
+		when(trigramIndex.isReady()).thenReturn(true);
+		when(trigramIndex.search("tatoine", 10)).thenReturn(matches);
+
+		assertThat(service.search("tatoine", 10)).isEqualTo(matches);
+		verifyNoInteractions(repository);
+	}
+
+	@Test
+	public void search_WhileIndexIsLoading_MatchesExactNameOnly() {
+		when(repository.findViewByName("Tatooine")).thenReturn(Optional.of(new PlanetView(1L, "Tatooine", "arid", "desert")));
+
+		assertThat(service.search(" Tatooine ", 10)).containsExactly(new PlanetNameMatch(1L, "Tatooine", 1.0));
+	}
+
+	@Test
+	public void facets_WhenIndexIsReady_DoesNotQueryDatabase() {
+		PlanetFacets facets = PlanetFacets.of(Map.of("arid", 1L), Map.of("desert", 1L));
+		when(facetIndex.isReady()).thenReturn(true);
+		when(facetIndex.facets(PlanetFilter.ALL)).thenReturn(facets);
+
+		assertThat(service.facets(PlanetFilter.ALL)).isEqualTo(facets);
+		verifyNoInteractions(repository);
+	}
+
+	@Test
+	public void facets_WhileIndexIsLoading_CountsInDatabase() {
+		PlanetFacets facets = PlanetFacets.of(Map.of("arid", 1L), Map.of("desert", 1L));
+		when(repository.countFacets(PlanetFilter.ALL)).thenReturn(facets);
+
+		assertThat(service.facets(PlanetFilter.ALL)).isEqualTo(facets);
+	}
+	
 	@Test
 	public void removePlanet_WithIdExisting_DoesNotThrowAnyException() {
+		when(repository.deleteByIds(List.of(1L))).thenReturn(1);
 		
 		assertThatCode(() -> service.delete(1L)).doesNotThrowAnyException();
+		verify(events).publishEvent(new PlanetsDeletedEvent(List.of(1L)));
 	}
 	
 	@Test
 	public void removePlanet_WithInvalidId_ThrowException() {
 		
-		doThrow(new RuntimeException()).when(repository).deleteById(99L);
+		when(repository.deleteByIds(List.of(99L))).thenReturn(0);
+		
+		assertThatThrownBy( () -> service.delete(99L)).isInstanceOf(EmptyResultDataAccessException.class);
+		verifyNoInteractions(events);
+		
+	}
+	
+	@Test
+	public void removePlanets_ByIds_DeletesOnceAndReturnsCount() {
+		when(repository.deleteByIds(List.of(1L, 2L, 99L))).thenReturn(2);
 		
-		assertThatThrownBy( () -> service.delete(99L)).isInstanceOf(RuntimeException.class);
+		int sut = service.deleteAll(List.of(1L, 2L, 1L, 99L));
 		
+		assertThat(sut).isEqualTo(2);
+		verify(repository, times(1)).deleteByIds(any());
+		verify(events).publishEvent(new PlanetsDeletedEvent(List.of(1L, 2L, 99L)));
+	}
+	
+	@Test
+	public void removePlanets_ByFilter_DeletesInOneStatementAndClearsTheCache() {
+		PlanetFilter filter = new PlanetFilter("arid", null);
+		when(repository.deleteMatching(filter)).thenReturn(2);
+		
+		int sut = service.deleteMatching(filter);
+		
+		assertThat(sut).isEqualTo(2);
+		verify(repository, never()).findIds(any());
+		verify(repository, never()).deleteByIds(any());
+		verify(jdbcTemplate).update(PlanetCatalogGeneration.BUMP);
+		verify(cache).clear();
+		verify(events).publishEvent(new PlanetsDeletedMatchingEvent(filter));
+	}
+	
+	@Test
+	public void removePlanets_ByFilterWithoutMatches_PublishesNothing() {
+		when(repository.deleteMatching(PlanetFilter.ALL)).thenReturn(0);
 		
+		assertThat(service.deleteMatching(PlanetFilter.ALL)).isZero();
+		verify(jdbcTemplate, never()).update(PlanetCatalogGeneration.BUMP);
+		verifyNoInteractions(events);
 	}
 	
 	
@@ -0,0 +1,58 @@
+package com.marcos.demo.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.marcos.demo.catalog.PlanetTrigramIndex;
+
+public class PlanetTrigramIndexTest {
+
+	private PlanetTrigramIndex index;
+
+	@BeforeEach
+	public void setUp() {
+		index = new PlanetTrigramIndex(true, 0.3);
+		index.reset();
+		index.add(List.of(new PlanetView(1L, "Tatooine", "arid", "desert"),
+				new PlanetView(2L, "Alderaan", "temperate", "grasslands, mountains"),
+				new PlanetView(3L, "Yavin IV", "temperate, tropical", "jungle, rainforests"),
+				new PlanetView(4L, "Dantooine", "temperate", "oceans, savannas")));
+		index.ready();
+	}
+
+	@Test
+	public void search_WithMisspelledName_FindsPlanet() {
+		List<PlanetNameMatch> sut = index.search("tatoine", 10);
+
+		assertThat(sut).extracting(PlanetNameMatch::id).containsExactly(1L);
+		assertThat(sut.get(0).similarity()).isEqualTo(0.7);
+	}
+
+	@Test
+	public void search_RanksByTrigramSimilarity() {
+		assertThat(index.search("tatooine", 10)).extracting(PlanetNameMatch::id).containsExactly(1L, 4L);
+	}
+
+	@Test
+	public void search_WithExactNameInOtherCase_ScoresOne() {
+		assertThat(index.search("  yavin   iv ", 10)).extracting(PlanetNameMatch::similarity).containsExactly(1.0);
+	}
+
+	@Test
+	public void search_StopsAtLimitAndThreshold() {
+		assertThat(index.search("tatooine", 1)).extracting(PlanetNameMatch::name).containsExactly("Tatooine");
+		assertThat(index.search("xyz", 10)).isEmpty();
+	}
+
+	@Test
+	public void remove_HidesPlanetFromSearch() {
+		index.remove(List.of(1L));
+
+		assertThat(index.search("tatooine", 10)).extracting(PlanetNameMatch::id).containsExactly(4L);
+	}
+
+}
@@ -0,0 +1,277 @@
+package com.marcos.demo.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.marcos.demo.common.BenchmarkReport;
+import com.marcos.demo.domain.Planet;
+import com.marcos.demo.service.PlanetService;
+
+/*
+ * mvn test -Pload [-Dload.rate=300 -Dload.seconds=60 -Dload.mix=create:10,get:60,list:25,delete:5]
+ * Open-model load against PlanetController on embedded H2: requests are started at a fixed arrival
+ * rate whether or not earlier ones finished, and latency is measured from the scheduled start, so
+ * a stalled server shows up in the percentiles instead of silently lowering the rate.
+ * Report: target/load/planet-load.txt. -Dload.max-p99-ms turns a p99 budget into a failing check.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "planet.cache.max-size=1000")
+@AutoConfigureTestDatabase
+public class PlanetLoadTest {
+
+	private static final int RATE = Integer.getInteger("load.rate", 200);
+	private static final int SECONDS = Integer.getInteger("load.seconds", 30);
+	private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 5);
+	private static final int SEED = Integer.getInteger("load.seed-planets", 2_000);
+	private static final String MIX = System.getProperty("load.mix", "create:10,get:60,list:25,delete:5");
+	private static final String MAX_P99_MS = System.getProperty("load.max-p99-ms");
+
+	enum Operation {
+		CREATE, GET, LIST, DELETE
+	}
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private PlanetService service;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.build();
+	private final ConcurrentLinkedDeque<Long> ids = new ConcurrentLinkedDeque<>();
+	private final AtomicLong sequence = new AtomicLong();
+
+	@Test
+	public void runMix() throws Exception {
+		Operation[] schedule = schedule(MIX);
+		service.createBatch(IntStream.range(0, SEED)
+				.mapToObj(i -> new Planet("seed-" + i, i % 2 == 0 ? "arid" : "temperate", "desert"))
+				.iterator());
+		ids.addAll(jdbcTemplate.queryForList("select id from planets order by id", Long.class));
+
+		run(schedule, WARMUP_SECONDS, new Recorder());
+		Recorder recorder = new Recorder();
+		Instant started = Instant.now();
+		run(schedule, SECONDS, recorder);
+
+		List<String> report = recorder.report(started);
+		BenchmarkReport.write(Path.of("target", "load", "planet-load.txt"), report);
+
+		assertThat(recorder.completed()).isPositive();
+		if (MAX_P99_MS != null) {
+			assertThat(recorder.p99Millis()).as("p99 over all operations (ms)").isLessThanOrEqualTo(Double.parseDouble(MAX_P99_MS));
+		}
+	}
+
+	private void run(Operation[] schedule, int seconds, Recorder recorder) {
+		long interval = 1_000_000_000L / RATE;
+		long total = (long) RATE * seconds;
+		long start = System.nanoTime();
+		try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (long i = 0; i < total; i++) {
+				long intended = start + i * interval;
+				long wait = intended - System.nanoTime();
+				if (wait > 0) {
+					LockSupport.parkNanos(wait);
+				}
+				Operation operation = schedule[(int) (i % schedule.length)];
+				requests.submit(() -> recorder.record(operation, intended, call(operation)));
+			}
+		}
+	}
+
+	private Outcome call(Operation operation) {
+		try {
+			return switch (operation) {
+			case CREATE -> {
+				String name = "load-" + sequence.incrementAndGet();
+				HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/planets"))
+						.header("Content-Type", "application/json")
+						.POST(HttpRequest.BodyPublishers.ofString(
+								"{\"name\":\"" + name + "\",\"climate\":\"arid\",\"terain\":\"desert\"}")));
+				if (response.statusCode() == 201) {
+					ids.add(Long.valueOf(response.body().replaceAll(".*\"id\":(\\d+).*", "$1")));
+				}
+				yield Outcome.of(response.statusCode(), 201);
+			}
+			case GET -> {
+				Long id = randomId();
+				yield id == null ? Outcome.SKIPPED
+						: Outcome.of(send(HttpRequest.newBuilder(uri("/planets/" + id)).GET()).statusCode(), 200);
+			}
+			case LIST -> {
+				String climate = ThreadLocalRandom.current().nextBoolean() ? "arid" : "temperate";
+				yield Outcome.of(send(HttpRequest.newBuilder(uri("/planets?limit=50&climate=" + climate)).GET())
+						.statusCode(), 200);
+			}
+			case DELETE -> {
+				Long id = ids.pollLast();
+				yield id == null ? Outcome.SKIPPED
+						: Outcome.of(send(HttpRequest.newBuilder(uri("/planets/" + id)).DELETE()).statusCode(), 204);
+			}
+			};
+		} catch (IOException ex) {
+			return Outcome.ERROR;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return Outcome.ERROR;
+		}
+	}
+
+	private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+		return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	// Deleted ids are left to produce the occasional 404, which is reported apart from errors.
+	private Long randomId() {
+		Long first = ids.peekFirst();
+		Long last = ids.peekLast();
+		if (first == null || last == null || first > last) {
+			return null;
+		}
+		return ThreadLocalRandom.current().nextLong(first, last + 1);
+	}
+
+	// One cycle has as many slots as the weights add up to; each operation is spread evenly over it.
+	static Operation[] schedule(String mix) {
+		Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+		for (String part : mix.split(",")) {
+			String[] pair = part.trim().split(":");
+			weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+		}
+		int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+		if (total <= 0) {
+			throw new IllegalArgumentException("load.mix needs at least one positive weight: " + mix);
+		}
+		Operation[] schedule = new Operation[total];
+		double[] credit = new double[Operation.values().length];
+		for (int slot = 0; slot < total; slot++) {
+			Operation next = null;
+			for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+				credit[weight.getKey().ordinal()] += weight.getValue() / (double) total;
+				if (next == null || credit[weight.getKey().ordinal()] > credit[next.ordinal()]) {
+					next = weight.getKey();
+				}
+			}
+			credit[next.ordinal()] -= 1;
+			schedule[slot] = next;
+		}
+		return schedule;
+	}
+
+	enum Outcome {
+		OK, NOT_FOUND, ERROR, SKIPPED;
+
+		static Outcome of(int status, int expected) {
+			return status == expected ? OK : status == 404 ? NOT_FOUND : ERROR;
+		}
+	}
+
+	static class Recorder {
+
+		private final Map<Operation, ConcurrentLinkedQueue<Long>> latencies = new EnumMap<>(Operation.class);
+		private final Map<Operation, Map<Outcome, AtomicLong>> outcomes = new EnumMap<>(Operation.class);
+
+		Recorder() {
+			for (Operation operation : Operation.values()) {
+				latencies.put(operation, new ConcurrentLinkedQueue<>());
+				Map<Outcome, AtomicLong> counts = new EnumMap<>(Outcome.class);
+				for (Outcome outcome : Outcome.values()) {
+					counts.put(outcome, new AtomicLong());
+				}
+				outcomes.put(operation, counts);
+			}
+		}
+
+		void record(Operation operation, long intendedStart, Outcome outcome) {
+			outcomes.get(operation).get(outcome).incrementAndGet();
+			if (outcome != Outcome.SKIPPED) {
+				latencies.get(operation).add(System.nanoTime() - intendedStart);
+			}
+		}
+
+		long completed() {
+			return latencies.values().stream().mapToLong(ConcurrentLinkedQueue::size).sum();
+		}
+
+		double p99Millis() {
+			return percentile(sorted(latencies.values().stream().flatMap(ConcurrentLinkedQueue::stream).toList()), 0.99);
+		}
+
+		List<String> report(Instant started) {
+			List<String> lines = new ArrayList<>();
+			lines.add(String.format("started %s, target %d req/s for %d s, mix %s%n", started, RATE, SECONDS, MIX));
+			lines.add(String.format("%-8s %8s %9s %9s %9s %9s %9s %9s %7s %7s%n", "op", "count", "req/s", "p50 ms",
+					"p90 ms", "p99 ms", "p99.9 ms", "max ms", "404", "errors"));
+			for (Operation operation : Operation.values()) {
+				long[] sorted = sorted(latencies.get(operation));
+				if (sorted.length == 0) {
+					continue;
+				}
+				Map<Outcome, AtomicLong> counts = outcomes.get(operation);
+				lines.add(String.format("%-8s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d %7d%n",
+						operation.name().toLowerCase(), sorted.length, sorted.length / (double) SECONDS,
+						percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+						percentile(sorted, 0.999), sorted[sorted.length - 1] / 1e6,
+						counts.get(Outcome.NOT_FOUND).get(), counts.get(Outcome.ERROR).get()));
+			}
+			lines.add(String.format("%-8s %8d %9.1f %9s %9s %9.2f%n", "all", completed(), completed() / (double) SECONDS,
+					"", "", p99Millis()));
+			return lines;
+		}
+
+		private static long[] sorted(Collection<Long> values) {
+			long[] sorted = values.stream().mapToLong(Long::longValue).toArray();
+			Arrays.sort(sorted);
+			return sorted;
+		}
+
+		private static double percentile(long[] sorted, double p) {
+			if (sorted.length == 0) {
+				return 0;
+			}
+			return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+		}
+
+	}
+
+}
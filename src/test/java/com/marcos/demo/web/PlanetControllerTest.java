@@ -2,19 +2,37 @@ package com.marcos.demo.web;
 
 import static com.marcos.demo.common.PlanetConstants.PLANET;
 import static com.marcos.demo.common.PlanetConstants.PLANETS;
+import static com.marcos.demo.common.PlanetConstants.PLANET_VIEWS;
 import static com.marcos.demo.common.PlanetConstants.TATOOINE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,14 +40,31 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.marcos.demo.controller.PlanetController;
+import com.marcos.demo.domain.BatchItemResult;
 import com.marcos.demo.domain.Planet;
+import com.marcos.demo.domain.PlanetView;
+import com.marcos.demo.domain.PlanetBatchReport;
+import com.marcos.demo.domain.PlanetFacets;
+import com.marcos.demo.domain.PlanetFilter;
+import com.marcos.demo.domain.PlanetNameMatch;
+import com.marcos.demo.domain.PlanetPage;
+import com.marcos.demo.domain.PlanetSuggestion;
+import com.marcos.demo.domain.TokenMatch;
+import com.marcos.demo.service.CacheStats;
+import com.marcos.demo.service.InvalidCursorException;
 import com.marcos.demo.service.PlanetService;
+import com.marcos.demo.service.ResultCacheStats;
 
 @WebMvcTest(PlanetController.class)
 public class PlanetControllerTest {
@@ -40,6 +75,9 @@ public class PlanetControllerTest {
 	@Autowired
 	private ObjectMapper mapper;
 
+	private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+	private static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+
 	@MockBean
 	private PlanetService service;
 
@@ -75,13 +113,101 @@ public class PlanetControllerTest {
 				.contentType(MediaType.APPLICATION_JSON)).andExpect(status().isConflict());
 		}
 	
+	@Test
+	public void createBatch_WithJsonArray_ReturnsReport() throws Exception {
+		when(service.createBatch(any())).thenAnswer(invocation -> {
+			Iterator<Planet> planets = invocation.getArgument(0);
+			List<BatchItemResult> items = new ArrayList<>();
+			while (planets.hasNext()) {
+				Planet planet = planets.next();
+				items.add(BatchItemResult.created(items.size(), planet.getName(), items.size() + 1L));
+			}
+			return PlanetBatchReport.of(items);
+		});
+
+		mvc.perform(post("/planets/batch").content(mapper.writeValueAsString(PLANETS))
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.created").value(3))
+				.andExpect(jsonPath("$.items", hasSize(3)))
+				.andExpect(jsonPath("$.items[1].name").value(PLANETS.get(1).getName()));
+	}
+
+	@Test
+	public void createBatch_WithNullElement_PassesItThrough() throws Exception {
+		when(service.createBatch(any())).thenAnswer(invocation -> {
+			Iterator<Planet> planets = invocation.getArgument(0);
+			List<BatchItemResult> items = new ArrayList<>();
+			planets.forEachRemaining(planet -> items.add(planet == null ? BatchItemResult.invalid(items.size(), null)
+					: BatchItemResult.created(items.size(), planet.getName(), items.size() + 1L)));
+			return PlanetBatchReport.of(items);
+		});
+
+		mvc.perform(post("/planets/batch").content("[" + mapper.writeValueAsString(TATOOINE) + ",null]")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.created").value(1))
+				.andExpect(jsonPath("$.invalid").value(1))
+				.andExpect(jsonPath("$.items[1].status").value("INVALID"));
+	}
+
+	@Test
+	public void createBatch_WithMalformedElement_ReturnsBadRequest() throws Exception {
+		when(service.createBatch(any())).thenAnswer(invocation -> {
+			Iterator<Planet> planets = invocation.getArgument(0);
+			planets.forEachRemaining(planet -> {
+			});
+			return PlanetBatchReport.of(List.of());
+		});
+
+		mvc.perform(post("/planets/batch").content("[" + mapper.writeValueAsString(TATOOINE) + ",{\"name\":]")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void createBatch_WithNdjson_ReadsOnePlanetPerLine() throws Exception {
+		when(service.createBatch(any())).thenAnswer(invocation -> {
+			Iterator<Planet> planets = invocation.getArgument(0);
+			List<BatchItemResult> items = new ArrayList<>();
+			planets.forEachRemaining(planet -> items.add(BatchItemResult.conflict(items.size(), planet.getName())));
+			return PlanetBatchReport.of(items);
+		});
+		String body = mapper.writeValueAsString(TATOOINE) + "\n" + mapper.writeValueAsString(PLANET) + "\n";
+
+		mvc.perform(post("/planets/batch").content(body).contentType(MediaType.APPLICATION_NDJSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.conflicts").value(2))
+				.andExpect(jsonPath("$.items[0].status").value("CONFLICT"));
+	}
+
 	@Test
 	public void getPlanet_ByIdExisting_ReturnsPlanet() throws Exception {		
-		when(service.getId(1L)).thenReturn(Optional.of(PLANET));
+		when(service.getId(1L)).thenReturn(Optional.of(PlanetView.of(PLANET)));
 
 		mvc.perform(get("/planets/1")).andExpect(status().isOk());
 	}
 	
+	@Test
+	public void getPlanet_ById_ReturnsVersionETag() throws Exception {
+		when(service.getId(1L)).thenReturn(Optional.of(new PlanetView(1L, "Tatooine", "arid", "desert", 3L)));
+
+		mvc.perform(get("/planets/1"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+				.andExpect(jsonPath("$.version").doesNotExist());
+	}
+
+	@Test
+	public void getPlanet_ByIdWithMatchingETag_ReturnsNotModified() throws Exception {
+		when(service.getId(1L)).thenReturn(Optional.of(new PlanetView(1L, "Tatooine", "arid", "desert", 3L)));
+
+		mvc.perform(get("/planets/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+	}
+
 	@Test
 	public void getPlanet_ByIduExisting_ReturnsPlanet() throws Exception {		
   	    mvc.perform(get("/planets/1")).andExpect(status().isNotFound());
@@ -89,7 +215,7 @@ public class PlanetControllerTest {
 	
 	@Test
 	public void getPlanet_ByNameExisting_ReturnsPlanet() throws Exception {		
-		when(service.getByName(PLANET.getName())).thenReturn(Optional.of(PLANET));
+		when(service.getByName(PLANET.getName())).thenReturn(Optional.of(PlanetView.of(PLANET)));
 
 		mvc.perform(get("/planets/name/ " + PLANET.getName())).andExpect(status().isOk());
 	}
@@ -101,8 +227,9 @@ public class PlanetControllerTest {
 	
 	@Test
 	  public void listPlanets_ReturnsFilteredPlanets() throws Exception {
-	    when(service.list(null, null)).thenReturn(PLANETS);
-	    when(service.list(TATOOINE.getTerain(), TATOOINE.getClimate())).thenReturn(List.of(TATOOINE));
+	    when(service.listPage(PlanetFilter.ALL, null, 100)).thenReturn(new PlanetPage(PLANET_VIEWS, null));
+	    when(service.listPage(new PlanetFilter(TATOOINE.getClimate(), TATOOINE.getTerain()), null, 100))
+	        .thenReturn(new PlanetPage(List.of(PlanetView.of(TATOOINE)), null));
 
 	    mvc
 	        .perform(
@@ -120,7 +247,7 @@ public class PlanetControllerTest {
 
 	  @Test
 	  public void listPlanets_ReturnsNoPlanets() throws Exception {
-	    when(service.list(null, null)).thenReturn(Collections.emptyList());
+	    when(service.listPage(PlanetFilter.ALL, null, 100)).thenReturn(new PlanetPage(Collections.emptyList(), null));
 
 	    mvc
 	        .perform(
@@ -129,6 +256,66 @@ public class PlanetControllerTest {
 	        .andExpect(jsonPath("$", hasSize(0)));
 	  }
 	  
+	  @Test
+	  public void listPlanets_WithMoreRows_ReturnsNextCursor() throws Exception {
+	    when(service.listPage(PlanetFilter.ALL, null, 2)).thenReturn(new PlanetPage(PLANET_VIEWS.subList(0, 2), "Mg"));
+
+	    mvc
+	        .perform(
+	            get("/planets?limit=2"))
+	        .andExpect(status().isOk())
+	        .andExpect(jsonPath("$", hasSize(2)))
+	        .andExpect(header().string(PlanetController.NEXT_CURSOR_HEADER, "Mg"))
+	        .andExpect(header().string(HttpHeaders.LINK, containsString("after=Mg")));
+	  }
+
+	  @Test
+	  public void listPlanets_ByTokens_PassesTokenFilter() throws Exception {
+	    PlanetFilter filter = new PlanetFilter(null, null, Set.of(), Set.of("grasslands", "mountains"), TokenMatch.ALL);
+	    when(service.listPage(filter, null, 100)).thenReturn(new PlanetPage(List.of(PLANET_VIEWS.get(1)), null));
+
+	    mvc
+	        .perform(
+	            get("/planets?terrainToken=Mountains&terrainToken=grasslands&match=all"))
+	        .andExpect(status().isOk())
+	        .andExpect(jsonPath("$", hasSize(1)));
+	  }
+
+	  @Test
+	  public void listPlanets_WithUnknownMatch_ReturnsBadRequest() throws Exception {
+	    mvc.perform(get("/planets").param("match", "some"))
+	        .andExpect(status().isBadRequest());
+	  }
+
+	  @Test
+	  public void listPlanets_WithInvalidCursor_ReturnsBadRequest() throws Exception {
+	    when(service.listPage(PlanetFilter.ALL, "???", 100)).thenThrow(new InvalidCursorException("???"));
+
+	    mvc.perform(get("/planets").param("after", "???"))
+	        .andExpect(status().isBadRequest());
+	  }
+
+	  @Test
+	  public void listPlanets_AsNdjson_StreamsOnePlanetPerLine() throws Exception {
+	    doAnswer(invocation -> {
+	      Consumer<PlanetView> sink = invocation.getArgument(1);
+	      PLANET_VIEWS.forEach(sink);
+	      return null;
+	    }).when(service).stream(eq(PlanetFilter.ALL), any());
+
+	    MvcResult result = mvc.perform(get("/planets").accept(MediaType.APPLICATION_NDJSON))
+	        .andExpect(request().asyncStarted())
+	        .andReturn();
+
+	    mvc.perform(asyncDispatch(result))
+	        .andExpect(status().isOk())
+	        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+
+	    String[] lines = result.getResponse().getContentAsString().split("\n");
+	    assertThat(lines).hasSize(3);
+	    assertThat(mapper.readValue(lines[0], Planet.class).getName()).isEqualTo(TATOOINE.getName());
+	  }
+
 	  @Test
 	  public void removePlanet_WithExistingId_ReturnsNoContent() throws Exception {
 	    mvc.perform(delete("/planets/1"))
@@ -145,4 +332,135 @@ public class PlanetControllerTest {
 	        .andExpect(status().isNotFound());
 	  }
 
+	  @Test
+	  public void removePlanets_ByIds_ReturnsDeletedCount() throws Exception {
+	    when(service.deleteAll(List.of(1L, 2L))).thenReturn(2);
+
+	    mvc.perform(delete("/planets").param("id", "1", "2"))
+	        .andExpect(status().isOk())
+	        .andExpect(jsonPath("$.deleted").value(2));
+	  }
+
+	  @Test
+	  public void removePlanets_ByFilter_ReturnsDeletedCount() throws Exception {
+	    when(service.deleteMatching(new PlanetFilter("arid", null))).thenReturn(3);
+
+	    mvc.perform(delete("/planets").param("climate", "arid"))
+	        .andExpect(status().isOk())
+	        .andExpect(jsonPath("$.deleted").value(3));
+	  }
+
+	  @Test
+	  public void removePlanets_WithoutCriteria_ReturnsBadRequest() throws Exception {
+	    mvc.perform(delete("/planets")).andExpect(status().isBadRequest());
+	    mvc.perform(delete("/planets").param("id", "1").param("climate", "arid")).andExpect(status().isBadRequest());
+
+	    verify(service, never()).deleteAll(any());
+	    verify(service, never()).deleteMatching(any());
+	  }
+
+	  @Test
+	  public void suggestNames_ReturnsSuggestions() throws Exception {
+	    when(service.suggest("tat", 10)).thenReturn(List.of(new PlanetSuggestion(1L, "Tatooine")));
+
+	    mvc.perform(get("/planets/name/suggest").param("prefix", "tat"))
+	        .andExpect(status().isOk())
+	        .andExpect(jsonPath("$", hasSize(1)))
+	        .andExpect(jsonPath("$[0].name").value("Tatooine"));
+	  }
+
+	  @Test
+	  public void searchNames_ReturnsRankedMatches() throws Exception {
+	    when(service.search("tatoine", 5)).thenReturn(List.of(new PlanetNameMatch(1L, "Tatooine", 0.7)));
+
+	    mvc.perform(get("/planets/name/search").param("q", "tatoine").param("limit", "5"))
+	        .andExpect(status().isOk())
+	        .andExpect(jsonPath("$[0].name").value("Tatooine"))
+	        .andExpect(jsonPath("$[0].similarity").value(0.7));
+	  }
+
+	  @Test
+	  public void getFacets_WithFilter_ReturnsCounts() throws Exception {
+	    when(service.catalogETag()).thenReturn("catalog-7");
+	    when(service.facets(new PlanetFilter(null, "desert")))
+	        .thenReturn(PlanetFacets.of(Map.of("arid", 2L), Map.of("desert", 2L)));
+
+	    mvc.perform(get("/planets/facets").param("terrain", "desert"))
+	        .andExpect(status().isOk())
+	        .andExpect(header().string(HttpHeaders.ETAG, "\"catalog-7\""))
+	        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+	        .andExpect(jsonPath("$.total").value(2))
+	        .andExpect(jsonPath("$.climate.arid").value(2));
+	  }
+
+	  @Test
+	  public void listPlanets_WithCurrentCatalogETag_SkipsQuery() throws Exception {
+	    when(service.catalogETag()).thenReturn("catalog-7");
+
+	    mvc.perform(get("/planets").header(HttpHeaders.IF_NONE_MATCH, "\"catalog-7\""))
+	        .andExpect(status().isNotModified())
+	        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+	    verify(service, never()).listPage(any(), any(), anyInt());
+	  }
+
+	  @Test
+	  public void listPlanets_WithStaleCatalogETag_ReturnsRowsAndNewETag() throws Exception {
+	    when(service.catalogETag()).thenReturn("catalog-8");
+	    when(service.listPage(PlanetFilter.ALL, null, 100)).thenReturn(new PlanetPage(PLANET_VIEWS, null));
+
+	    mvc.perform(get("/planets").header(HttpHeaders.IF_NONE_MATCH, "\"catalog-7\""))
+	        .andExpect(status().isOk())
+	        .andExpect(header().string(HttpHeaders.ETAG, "\"catalog-8\""))
+	        .andExpect(jsonPath("$", hasSize(3)));
+	  }
+
+	  @Test
+	  public void listPlanets_WithSmileAccept_ReturnsSmile() throws Exception {
+	    when(service.listPage(PlanetFilter.ALL, null, 100)).thenReturn(new PlanetPage(PLANET_VIEWS, null));
+
+	    MvcResult result = mvc.perform(get("/planets").accept(SMILE))
+	        .andExpect(status().isOk())
+	        .andExpect(content().contentType(SMILE))
+	        .andReturn();
+
+	    JsonNode sut = new ObjectMapper(new SmileFactory()).readTree(result.getResponse().getContentAsByteArray());
+	    assertThat(sut).hasSize(3);
+	    assertThat(sut.get(0).get("name").asText()).isEqualTo(TATOOINE.getName());
+	  }
+
+	  @Test
+	  public void getPlanet_WithCborAccept_ReturnsCbor() throws Exception {
+	    when(service.getId(1L)).thenReturn(Optional.of(PlanetView.of(TATOOINE)));
+
+	    MvcResult result = mvc.perform(get("/planets/1").accept(CBOR))
+	        .andExpect(status().isOk())
+	        .andExpect(content().contentType(CBOR))
+	        .andReturn();
+
+	    JsonNode sut = new ObjectMapper(new CBORFactory()).readTree(result.getResponse().getContentAsByteArray());
+	    assertThat(sut.get("name").asText()).isEqualTo(TATOOINE.getName());
+	  }
+
+	  @Test
+	  public void getCacheStats_ReturnsCounters() throws Exception {
+	    when(service.cacheStats()).thenReturn(new CacheStats(5, 2, 1, 3, 100));
+
+	    mvc.perform(get("/planets/cache/stats"))
+	        .andExpect(status().isOk())
+	        .andExpect(jsonPath("$.hits").value(5))
+	        .andExpect(jsonPath("$.misses").value(2))
+	        .andExpect(jsonPath("$.evictions").value(1));
+	  }
+
+	  @Test
+	  public void getResultCacheStats_ReportsHitRatioAndMemory() throws Exception {
+	    when(service.resultCacheStats()).thenReturn(new ResultCacheStats(3, 1, 0.75, 0, 2, 256, 1024));
+
+	    mvc.perform(get("/planets/cache/results/stats"))
+	        .andExpect(status().isOk())
+	        .andExpect(jsonPath("$.hitRatio").value(0.75))
+	        .andExpect(jsonPath("$.estimatedBytes").value(1024));
+	  }
+
 }
@@ -0,0 +1,52 @@
+package com.marcos.demo.web;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.marcos.demo.controller.PlanetExportController;
+import com.marcos.demo.domain.PlanetFileFormat;
+import com.marcos.demo.service.PlanetExporter;
+
+@WebMvcTest(PlanetExportController.class)
+public class PlanetExportControllerTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@MockBean
+	private PlanetExporter exporter;
+
+	@Test
+	public void export_Csv_StreamsGzipAttachment() throws Exception {
+		MvcResult result = mvc.perform(get("/planets/export").param("format", "CSV"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(PlanetExportController.GZIP))
+				.andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"planets.csv.gz\""));
+		verify(exporter).write(eq(PlanetFileFormat.CSV), any());
+	}
+
+	@Test
+	public void export_UnknownFormat_ReturnsBadRequest() throws Exception {
+		mvc.perform(get("/planets/export").param("format", "xml")).andExpect(status().isBadRequest());
+	}
+
+}
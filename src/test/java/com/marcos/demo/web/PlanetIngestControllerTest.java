@@ -0,0 +1,105 @@
+package com.marcos.demo.web;
+
+import static com.marcos.demo.common.PlanetConstants.PLANET;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcos.demo.controller.PlanetIngestController;
+import com.marcos.demo.domain.IngestStatus;
+import com.marcos.demo.domain.IngestStatus.State;
+import com.marcos.demo.service.PlanetIngestQueue;
+import com.marcos.demo.service.PlanetService;
+
+@WebMvcTest(PlanetIngestController.class)
+public class PlanetIngestControllerTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper mapper;
+
+	@MockBean
+	private PlanetIngestQueue queue;
+
+	@MockBean
+	private PlanetService service;
+
+	@Test
+	public void createAsync_ReturnsAcceptedWithTrackingLocation() throws Exception {
+		when(queue.submit(any())).thenReturn(Optional.of(IngestStatus.queued("abc", PLANET.getName())));
+
+		mvc.perform(post("/planets").header("Prefer", "respond-async")
+				.content(mapper.writeValueAsString(PLANET)).contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isAccepted())
+				.andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/planets/ingest/abc"))
+				.andExpect(header().string("Preference-Applied", "respond-async"))
+				.andExpect(jsonPath("$.state").value("QUEUED"));
+	}
+
+	@Test
+	public void createAsync_WithSeveralPreferences_ReturnsAccepted() throws Exception {
+		when(queue.submit(any())).thenReturn(Optional.of(IngestStatus.queued("abc", PLANET.getName())));
+
+		mvc.perform(post("/planets").header("Prefer", "return=minimal").header("Prefer", "Respond-Async, wait=10")
+				.content(mapper.writeValueAsString(PLANET)).contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isAccepted())
+				.andExpect(header().string("Preference-Applied", "respond-async"));
+	}
+
+	@Test
+	public void create_WithOtherPreferenceOnly_CreatesSynchronously() throws Exception {
+		when(service.create(any())).thenReturn(PLANET);
+
+		mvc.perform(post("/planets").header("Prefer", "return=representation; charset=utf-8, wait=10")
+				.content(mapper.writeValueAsString(PLANET)).contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isCreated())
+				.andExpect(header().doesNotExist("Preference-Applied"))
+				.andExpect(jsonPath("$.name").value(PLANET.getName()));
+		verify(queue, never()).submit(any());
+	}
+
+	@Test
+	public void createAsync_WhenQueueIsFull_ReturnsServiceUnavailable() throws Exception {
+		when(queue.submit(any())).thenReturn(Optional.empty());
+
+		mvc.perform(post("/planets").header("Prefer", "respond-async")
+				.content(mapper.writeValueAsString(PLANET)).contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+	}
+
+	@Test
+	public void status_ReturnsOutcome() throws Exception {
+		when(queue.status("abc")).thenReturn(Optional.of(new IngestStatus("abc", PLANET.getName(), State.CREATED, 7L)));
+
+		mvc.perform(get("/planets/ingest/abc"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.state").value("CREATED"))
+				.andExpect(jsonPath("$.id").value(7));
+	}
+
+	@Test
+	public void status_WithUnknownTrackingId_ReturnsNotFound() throws Exception {
+		mvc.perform(get("/planets/ingest/unknown")).andExpect(status().isNotFound());
+	}
+
+}